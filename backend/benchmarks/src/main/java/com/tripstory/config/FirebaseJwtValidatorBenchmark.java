@@ -0,0 +1,168 @@
+package com.tripstory.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firebase ID token validation, done by the auth filter on every request
+ *
+ * Keys come from a throwaway RSA key pair whose certificate is served by a local
+ * HTTP server standing in for Google's certs endpoint. "cached" measures a token
+ * the validator has already seen; "uncached" cycles through more distinct tokens
+ * than the validator's claims cache holds, so every call decodes, parses and
+ * verifies the signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirebaseJwtValidatorBenchmark {
+
+    private static final String PROJECT_ID = "tripstory-benchmark";
+    private static final String KEY_ID = "benchmark-key";
+    private static final String STORE_PASSWORD = "benchmark";
+
+    // Larger than the validator's cache, which is cleared once it fills up
+    private static final int UNCACHED_TOKEN_COUNT = 12000;
+
+    private Path keyStoreDirectory;
+    private HttpServer certsServer;
+    private FirebaseJwtValidator validator;
+    private String cachedToken;
+    private String[] uncachedTokens;
+    private int nextToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        keyStoreDirectory = Files.createTempDirectory("jwt-benchmark");
+        KeyStore keyStore = generateKeyStore(keyStoreDirectory.resolve("keys.p12"));
+        PrivateKey privateKey = (PrivateKey) keyStore.getKey(KEY_ID, STORE_PASSWORD.toCharArray());
+        Certificate certificate = keyStore.getCertificate(KEY_ID);
+
+        certsServer = startCertsServer(certificate);
+        validator = new FirebaseJwtValidator(PROJECT_ID,
+                "http://127.0.0.1:" + certsServer.getAddress().getPort() + "/certs");
+        validator.start();
+
+        long now = System.currentTimeMillis() / 1000;
+        cachedToken = "Bearer " + signToken(privateKey, "cached-user", now);
+        uncachedTokens = new String[UNCACHED_TOKEN_COUNT];
+        for (int i = 0; i < uncachedTokens.length; i++) {
+            uncachedTokens[i] = "Bearer " + signToken(privateKey, "user-" + i, now);
+        }
+
+        if (validator.validateToken(cachedToken) == null) {
+            throw new IllegalStateException("Benchmark token was rejected; check the validator output above");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        validator.shutdown();
+        certsServer.stop(0);
+        try (var files = Files.list(keyStoreDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(keyStoreDirectory);
+    }
+
+    @Benchmark
+    public Map<String, Object> cached() {
+        return validator.validateToken(cachedToken);
+    }
+
+    @Benchmark
+    public Map<String, Object> uncached() {
+        String token = uncachedTokens[nextToken];
+        nextToken = (nextToken + 1) % uncachedTokens.length;
+        return validator.validateToken(token);
+    }
+
+    /**
+     * Creates an RSA key pair with a self-signed certificate using the JDK's keytool
+     */
+    private static KeyStore generateKeyStore(Path file) throws Exception {
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        Process process = new ProcessBuilder(keytool.toString(),
+                "-genkeypair", "-alias", KEY_ID, "-keyalg", "RSA", "-keysize", "2048",
+                "-dname", "CN=" + PROJECT_ID, "-validity", "2",
+                "-storetype", "PKCS12", "-keystore", file.toString(),
+                "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed: " + output);
+        }
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, STORE_PASSWORD.toCharArray());
+        }
+        return keyStore;
+    }
+
+    /**
+     * Serves {"kid": "PEM certificate"} the way Google's securetoken endpoint does
+     */
+    private static HttpServer startCertsServer(Certificate certificate) throws Exception {
+        String pem = "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(certificate.getEncoded())
+                + "\n-----END CERTIFICATE-----\n";
+        byte[] body = ("{\"" + KEY_ID + "\":\"" + pem.replace("\n", "\\n") + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String signToken(PrivateKey privateKey, String uid, long issuedAt) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"kid\":\"" + KEY_ID + "\",\"typ\":\"JWT\"}";
+        String payload = "{\"iss\":\"https://securetoken.google.com/" + PROJECT_ID + "\","
+                + "\"aud\":\"" + PROJECT_ID + "\","
+                + "\"auth_time\":" + issuedAt + ","
+                + "\"user_id\":\"" + uid + "\","
+                + "\"sub\":\"" + uid + "\","
+                + "\"iat\":" + issuedAt + ","
+                + "\"exp\":" + (issuedAt + 3600) + ","
+                + "\"email\":\"" + uid + "@example.com\","
+                + "\"email_verified\":true,"
+                + "\"firebase\":{\"identities\":{\"email\":[\"" + uid + "@example.com\"]},\"sign_in_provider\":\"password\"}}";
+
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(privateKey);
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + encoder.encodeToString(signer.sign());
+    }
+}
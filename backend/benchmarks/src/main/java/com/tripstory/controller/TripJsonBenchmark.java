@@ -0,0 +1,65 @@
+package com.tripstory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tripstory.model.Trip;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the trip lists returned by the list and search endpoints
+ *
+ * The mapper is built the way Spring Boot builds the application's, and the output
+ * is discarded so only encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripJsonBenchmark {
+
+    @Param({"20", "100"})
+    int tripCount;
+
+    private ObjectWriter writer;
+    private List<Trip> trips;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Trip.class));
+
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 1, 10, 9, 30, 0, 0, ZoneOffset.UTC);
+        trips = new ArrayList<>(tripCount);
+        for (int i = 0; i < tripCount; i++) {
+            trips.add(new Trip()
+                    .id((long) i)
+                    .title("Trip " + i + " to Lisbon")
+                    .startDate(LocalDate.of(2025, 1, 1).plusDays(i))
+                    .endDate(LocalDate.of(2025, 1, 8).plusDays(i))
+                    .notes("Pasteis de nata, trams and the Alfama at sunset")
+                    .imageUrl("https://images.unsplash.com/photo-1585208798174-6cedd86e019a")
+                    .imageAttribution("Photo by Jane Doe on Unsplash")
+                    .imageStatus(Trip.ImageStatusEnum.READY)
+                    .destinationSummary("Lisbon, Sintra")
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt.plusHours(i)));
+        }
+    }
+
+    @Benchmark
+    public void writeTrips() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), trips);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tripstory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a Mapbox geocoding response, done on every search cache miss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapboxServiceBenchmark {
+
+    @Param({"5", "10"})
+    int featureCount;
+
+    private MapboxService mapboxService;
+    private String response;
+
+    @Setup
+    public void setUp() {
+        mapboxService = new MapboxService(new SimpleMeterRegistry(), 5000, 360, 5, 100000, 500, 2000, 5000);
+        response = geocodingResponse(featureCount);
+    }
+
+    @Benchmark
+    public List<MapboxService.DestinationSuggestion> parseMapboxResponse() {
+        return mapboxService.parseMapboxResponse(response);
+    }
+
+    /**
+     * A response shaped like the live API's, including the context and property
+     * fields the parser skips over
+     */
+    private static String geocodingResponse(int features) {
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"query\":[\"paris\"],\"features\":[");
+        for (int i = 0; i < features; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"place.").append(1000 + i).append("\",")
+                .append("\"type\":\"Feature\",\"place_type\":[\"place\"],\"relevance\":1,")
+                .append("\"properties\":{\"mapbox_id\":\"dXJuOm1ieHBsYzpBUW5Jc0E").append(i).append("\",\"wikidata\":\"Q90\"},")
+                .append("\"text\":\"Paris ").append(i).append("\",")
+                .append("\"place_name\":\"Paris ").append(i).append(", Île-de-France, France\",")
+                .append("\"bbox\":[2.224122,48.815573,2.469703,48.902145],")
+                .append("\"center\":[2.35").append(i).append(",48.85").append(i).append("],")
+                .append("\"geometry\":{\"type\":\"Point\",\"coordinates\":[2.35").append(i).append(",48.85").append(i).append("]},")
+                .append("\"context\":[")
+                .append("{\"id\":\"region.").append(i).append("\",\"mapbox_id\":\"dXJuOm1ieHBsYzpCUVRN\",\"wikidata\":\"Q13917\",\"short_code\":\"FR-IDF\",\"text\":\"Île-de-France\"},")
+                .append("{\"id\":\"country.").append(i).append("\",\"mapbox_id\":\"dXJuOm1ieHBsYzpJbVE\",\"wikidata\":\"Q142\",\"short_code\":\"fr\",\"text\":\"France\"}")
+                .append("]}");
+        }
+        json.append("],\"attribution\":\"NOTICE: © 2024 Mapbox and its suppliers. All rights reserved.\"}");
+        return json.toString();
+    }
+}
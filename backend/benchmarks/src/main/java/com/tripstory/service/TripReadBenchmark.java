@@ -0,0 +1,138 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.Trip;
+import com.tripstory.repository.TripRepository;
+import com.tripstory.util.TripConverter;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a user's trip list through {@link TripService#getAllTrips}
+ *
+ * The read selects trip views, then the destination names of up to 500 trips per
+ * statement, in a read-only transaction against an in-memory H2 database migrated by
+ * Flyway. The largest trip count takes more than one destination batch. Run with
+ * {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripReadBenchmark {
+
+    private static final String OWNER_UID = "benchmark-user";
+
+    @Param({"20", "100", "1000"})
+    int tripCount;
+
+    private AnnotationConfigApplicationContext context;
+    private TripRepository tripRepository;
+    private TripService tripService;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        tripRepository = context.getBean(TripRepository.class);
+        tripService = context.getBean(TripService.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 9, 30);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < tripCount; i++) {
+                Trip trip = new Trip("Trip " + i + " to Lisbon", LocalDate.of(2025, 1, 1).plusDays(i),
+                        LocalDate.of(2025, 1, 8).plusDays(i), "Pasteis de nata, trams and the Alfama at sunset");
+                trip.setOwnerUid(OWNER_UID);
+                trip.setImageUrl("https://images.unsplash.com/photo-1585208798174-6cedd86e019a");
+                trip.setImageAttribution("Photo by Jane Doe on Unsplash");
+                trip.setImageStatus(ImageStatus.READY);
+                trip.setCreatedAt(createdAt);
+                trip.setUpdatedAt(createdAt.plusHours(i));
+                for (String name : List.of("Lisbon", "Sintra")) {
+                    Destination destination = new Destination(name, name + ", Portugal", "place", 38.72, -9.14);
+                    destination.setOrderIndex(trip.getDestinations().size());
+                    destination.setCreatedAt(createdAt);
+                    destination.setUpdatedAt(createdAt);
+                    trip.addDestination(destination);
+                }
+                tripRepository.save(trip);
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<com.tripstory.model.Trip> getAllTrips() {
+        return tripService.getAllTrips(OWNER_UID);
+    }
+
+    /**
+     * Just the JPA part of the application: the trip repository and a transactional
+     * TripService, whose photo and search collaborators the list read never touches
+     */
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = TripRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = TripRepository.class))
+    static class JpaConfig {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            Flyway.configure().dataSource(dataSource)
+                    .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                    .placeholders(Map.of("legacyOwnerUid", ""))
+                    .load().migrate();
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(Trip.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        TripService tripService(TripRepository tripRepository) {
+            return new TripService(tripRepository, null, null, new TripConverter());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tripstory.util;
+
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.Trip;
+import com.tripstory.model.CreateTripRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/model conversion done for every trip a request returns or creates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripConverterBenchmark {
+
+    @Param({"1", "5"})
+    int destinationCount;
+
+    private TripConverter converter;
+    private Trip trip;
+    private CreateTripRequest createRequest;
+
+    @Setup
+    public void setUp() {
+        converter = new TripConverter();
+
+        trip = new Trip("Summer in Tokyo", LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 14), "Ramen, temples and trains");
+        trip.setId(42L);
+        trip.setImageUrl("https://images.unsplash.com/photo-1540959733332-eab4deabeeaf");
+        trip.setImageAttribution("Photo by Jane Doe on Unsplash");
+        trip.setImageStatus(ImageStatus.READY);
+        trip.setCreatedAt(LocalDateTime.of(2025, 1, 10, 9, 30));
+        trip.setUpdatedAt(LocalDateTime.of(2025, 1, 12, 18, 5));
+        for (int i = 0; i < destinationCount; i++) {
+            Destination destination = new Destination("Stop " + i, "Stop " + i + ", Tokyo, Japan", "place", 35.68, 139.76);
+            destination.setOrderIndex(i);
+            trip.addDestination(destination);
+        }
+
+        createRequest = new CreateTripRequest()
+                .title("Summer in Tokyo")
+                .startDate(LocalDate.of(2025, 7, 1))
+                .endDate(LocalDate.of(2025, 7, 14))
+                .notes("Ramen, temples and trains");
+    }
+
+    @Benchmark
+    public com.tripstory.model.Trip toModel() {
+        return converter.toModel(trip);
+    }
+
+    @Benchmark
+    public Trip fromCreateRequest() {
+        return converter.fromCreateRequest(createRequest);
+    }
+}
@@ -0,0 +1,61 @@
+package com.tripstory.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples and error count for one endpoint
+ *
+ * Each virtual user records into its own instance, so recording needs no
+ * synchronization; the instances are merged once the run is over.
+ */
+class LatencyStats {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+    private boolean sorted;
+
+    void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+        sorted = false;
+    }
+
+    void merge(LatencyStats other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in milliseconds, nearest-rank
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, Math.min(count, rank) - 1)] / 1_000_000.0;
+    }
+}
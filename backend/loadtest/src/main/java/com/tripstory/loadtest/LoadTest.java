@@ -0,0 +1,213 @@
+package com.tripstory.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tripstory.TripStoryApplication;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test of the backend against an in-memory H2 database
+ *
+ * Boots TripStoryApplication on a random port with Mapbox, Unsplash and the
+ * Firebase certs endpoint pointed at {@link StubServers}, seeds trips for a set
+ * of virtual users, then drives the {@link VirtualUser.Operation} mix and
+ * reports throughput, latency percentiles per endpoint, Hikari pool usage and
+ * the JVM's peak thread count and heap use.
+ *
+ * Options: --users, --duration and --warmup (seconds), --trips (per user),
+ * --stub-latency-ms and --mix (app, or upstream to make every request an
+ * uncached destination search). Any other --key=value argument is passed to the
+ * application, e.g. --spring.datasource.hikari.maximum-pool-size=20, or
+ * --spring.profiles.active=reactive to load the WebFlux and R2DBC stack.
+ */
+public final class LoadTest {
+
+    private static final String PROJECT_ID = "tripstory-loadtest";
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(Map.of(
+                "users", "20",
+                "duration", "60",
+                "warmup", "10",
+                "trips", "20",
+                "stub-latency-ms", "50",
+                "mix", "app"));
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String key = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : null;
+            if (key != null && options.containsKey(key)) {
+                options.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        int users = Integer.parseInt(options.get("users"));
+        int durationSeconds = Integer.parseInt(options.get("duration"));
+        int warmupSeconds = Integer.parseInt(options.get("warmup"));
+        int tripsPerUser = Integer.parseInt(options.get("trips"));
+        long stubLatencyMillis = Long.parseLong(options.get("stub-latency-ms"));
+        boolean upstreamOnly = switch (options.get("mix")) {
+            case "app" -> false;
+            case "upstream" -> true;
+            default -> throw new IllegalArgumentException("--mix must be app or upstream");
+        };
+
+        TestTokens tokens = TestTokens.generate(PROJECT_ID);
+        try (StubServers stubs = new StubServers(tokens.certificatePem(), stubLatencyMillis);
+             ConfigurableApplicationContext application = startApplication(stubs.baseUrl(), applicationArgs)) {
+
+            URI baseUri = URI.create("http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port"));
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            ObjectMapper objectMapper = new ObjectMapper();
+
+            System.out.printf("Seeding %d users with %d trips each%n", users, tripsPerUser);
+            List<VirtualUser> virtualUsers = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                VirtualUser user = new VirtualUser(i, tokens.tokenFor("loadtest-user-" + i), baseUri, httpClient,
+                        objectMapper, upstreamOnly);
+                user.seed(tripsPerUser);
+                virtualUsers.add(user);
+            }
+
+            HikariPoolMXBean pool = hikariPool(application);
+            AtomicInteger maxActive = new AtomicInteger();
+            AtomicInteger maxWaiting = new AtomicInteger();
+            AtomicLong maxHeapUsed = new AtomicLong();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            ScheduledExecutorService poolSampler = Executors.newSingleThreadScheduledExecutor();
+
+            System.out.printf("Running %d users for %ds after a %ds warmup%n", users, durationSeconds, warmupSeconds);
+            long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+            poolSampler.scheduleAtFixedRate(() -> {
+                if (System.nanoTime() >= measureFrom) {
+                    maxHeapUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    if (pool != null) {
+                        maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                        maxWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                    }
+                }
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            threads.resetPeakThreadCount();
+
+            ExecutorService workers = Executors.newFixedThreadPool(users);
+            for (VirtualUser user : virtualUsers) {
+                user.schedule(measureFrom, end);
+                workers.execute(user);
+            }
+            workers.shutdown();
+            workers.awaitTermination(warmupSeconds + durationSeconds + 60L, TimeUnit.SECONDS);
+            poolSampler.shutdownNow();
+
+            Map<VirtualUser.Operation, LatencyStats> totals = new EnumMap<>(VirtualUser.Operation.class);
+            for (VirtualUser.Operation operation : VirtualUser.Operation.values()) {
+                totals.put(operation, new LatencyStats());
+            }
+            for (VirtualUser user : virtualUsers) {
+                user.stats().forEach((operation, stats) -> totals.get(operation).merge(stats));
+            }
+            report(totals, durationSeconds, application, maxActive.get(), maxWaiting.get(), pool != null);
+            // Platform threads only: virtual threads do not show up in the thread count
+            System.out.printf("JVM: peak platform threads %d (including %d load generator threads), "
+                            + "peak heap used %d MB of max %d MB%n",
+                    threads.getPeakThreadCount(), users, maxHeapUsed.get() >> 20,
+                    memory.getHeapMemoryUsage().getMax() >> 20);
+        }
+    }
+
+    /**
+     * Start the application with stubbed upstreams; explicit arguments win over these defaults
+     */
+    private static ConfigurableApplicationContext startApplication(String stubBaseUrl, List<String> applicationArgs) {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("server.port", "0");
+        defaults.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+        defaults.put("firebase.project-id", PROJECT_ID);
+        defaults.put("firebase.certs-url", stubBaseUrl + "/certs");
+        defaults.put("mapbox.access-token", "loadtest");
+        defaults.put("mapbox.base-url", stubBaseUrl);
+        defaults.put("unsplash.api.access-key", "loadtest");
+        defaults.put("unsplash.api.base-url", stubBaseUrl);
+        defaults.put("logging.level.com.tripstory", "WARN");
+        defaults.put("logging.level.org.springframework.web", "WARN");
+        defaults.put("logging.level.org.hibernate.SQL", "WARN");
+
+        List<String> args = new ArrayList<>();
+        for (String arg : applicationArgs) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                defaults.remove(arg.substring(2, arg.indexOf('=')));
+            }
+            args.add(arg);
+        }
+        defaults.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return SpringApplication.run(TripStoryApplication.class, args.toArray(new String[0]));
+    }
+
+    /**
+     * The Hikari pool of the servlet stack, or null under the reactive profile, which has no DataSource
+     */
+    private static HikariPoolMXBean hikariPool(ConfigurableApplicationContext application) {
+        DataSource dataSource = application.getBeanProvider(DataSource.class).getIfAvailable();
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getHikariPoolMXBean();
+        }
+        return null;
+    }
+
+    private static void report(Map<VirtualUser.Operation, LatencyStats> totals, int durationSeconds,
+                               ConfigurableApplicationContext application,
+                               int maxActive, int maxWaiting, boolean poolSampled) {
+        LatencyStats all = new LatencyStats();
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%n%-36s %9s %7s %9s %8s %8s %8s %8s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        totals.forEach((operation, stats) -> {
+            if (stats.count() > 0) {
+                all.merge(stats);
+                table.append(row(operation.label, stats, durationSeconds));
+            }
+        });
+        table.append(row("Total", all, durationSeconds));
+        System.out.print(table);
+
+        DataSource dataSource = application.getBeanProvider(DataSource.class).getIfAvailable();
+        if (dataSource instanceof HikariDataSource hikari && poolSampled) {
+            System.out.printf("%nHikari pool: maximum %d, peak active %d, peak threads waiting %d%n",
+                    hikari.getMaximumPoolSize(), maxActive, maxWaiting);
+        }
+    }
+
+    private static String row(String label, LatencyStats stats, int durationSeconds) {
+        return String.format("%-36s %9d %7d %9.1f %8.2f %8.2f %8.2f %8.2f%n",
+                label, stats.count(), stats.errors(), stats.count() / (double) durationSeconds,
+                stats.percentileMillis(50), stats.percentileMillis(90),
+                stats.percentileMillis(99), stats.percentileMillis(100));
+    }
+}
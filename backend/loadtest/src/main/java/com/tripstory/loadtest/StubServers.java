@@ -0,0 +1,108 @@
+package com.tripstory.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-ins for the third-party APIs the backend calls
+ *
+ * One HTTP server answers Mapbox geocoding, Unsplash photo search and Google's
+ * Firebase certs endpoint. Every upstream response is delayed by a fixed latency
+ * so cache misses cost roughly what they would against the real services.
+ */
+class StubServers implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+
+    StubServers(String certificatePem, long latencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        String certs = "{\"" + TestTokens.KEY_ID + "\":\"" + certificatePem.replace("\n", "\\n") + "\"}";
+        server.createContext("/certs", exchange -> {
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            respond(exchange, certs);
+        });
+        server.createContext("/geocoding/v5/mapbox.places/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String query = URLDecoder.decode(
+                    path.substring(path.lastIndexOf('/') + 1).replace(".json", ""), StandardCharsets.UTF_8);
+            delay();
+            respond(exchange, geocodingResponse(query));
+        });
+        server.createContext("/search/photos", exchange -> {
+            delay();
+            respond(exchange, "{\"total\":1,\"results\":[{\"id\":\"stub\","
+                    + "\"urls\":{\"small\":\"https://images.example.com/small.jpg\",\"regular\":\"https://images.example.com/regular.jpg\"},"
+                    + "\"user\":{\"name\":\"Stub Photographer\",\"username\":\"stub\"},"
+                    + "\"links\":{\"html\":\"https://unsplash.example.com/stub\"}}]}");
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void delay() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Three places named after the query, shaped like the live geocoding response
+     */
+    private static String geocodingResponse(String query) {
+        String name = query.isEmpty() ? "Somewhere" : Character.toUpperCase(query.charAt(0)) + query.substring(1);
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        String[] types = {"place", "region", "country"};
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(types[i]).append('.').append(i).append("\",")
+                .append("\"type\":\"Feature\",\"place_type\":[\"").append(types[i]).append("\"],")
+                .append("\"text\":\"").append(name).append("\",")
+                .append("\"place_name\":\"").append(name).append(", Stub ").append(types[i]).append("\",")
+                .append("\"center\":[").append(10 + i).append(".5,").append(45 + i).append(".25]}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.tripstory.loadtest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Firebase-style ID tokens signed with a throwaway RSA key
+ *
+ * The key pair and its self-signed certificate are generated with the JDK's keytool;
+ * the certificate is served by {@link StubServers} in place of Google's certs endpoint.
+ */
+class TestTokens {
+
+    static final String KEY_ID = "loadtest-key";
+    private static final String STORE_PASSWORD = "loadtest";
+    private static final long LIFETIME_SECONDS = 3600;
+
+    private final String projectId;
+    private final PrivateKey privateKey;
+    private final String certificatePem;
+
+    private TestTokens(String projectId, PrivateKey privateKey, String certificatePem) {
+        this.projectId = projectId;
+        this.privateKey = privateKey;
+        this.certificatePem = certificatePem;
+    }
+
+    static TestTokens generate(String projectId) throws Exception {
+        Path directory = Files.createTempDirectory("tripstory-loadtest");
+        Path file = directory.resolve("keys.p12");
+        try {
+            Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+            Process process = new ProcessBuilder(keytool.toString(),
+                    "-genkeypair", "-alias", KEY_ID, "-keyalg", "RSA", "-keysize", "2048",
+                    "-dname", "CN=" + projectId, "-validity", "2",
+                    "-storetype", "PKCS12", "-keystore", file.toString(),
+                    "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("keytool failed: " + output);
+            }
+
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(file)) {
+                keyStore.load(in, STORE_PASSWORD.toCharArray());
+            }
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(KEY_ID, STORE_PASSWORD.toCharArray());
+            String pem = "-----BEGIN CERTIFICATE-----\n"
+                    + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII))
+                            .encodeToString(keyStore.getCertificate(KEY_ID).getEncoded())
+                    + "\n-----END CERTIFICATE-----\n";
+            return new TestTokens(projectId, privateKey, pem);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    String certificatePem() {
+        return certificatePem;
+    }
+
+    /**
+     * Sign an ID token for the given uid, valid for an hour
+     */
+    String tokenFor(String uid) throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"kid\":\"" + KEY_ID + "\",\"typ\":\"JWT\"}";
+        String payload = "{\"iss\":\"https://securetoken.google.com/" + projectId + "\","
+                + "\"aud\":\"" + projectId + "\","
+                + "\"sub\":\"" + uid + "\","
+                + "\"user_id\":\"" + uid + "\","
+                + "\"email\":\"" + uid + "@loadtest.example\","
+                + "\"iat\":" + now + ","
+                + "\"exp\":" + (now + LIFETIME_SECONDS) + "}";
+
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(privateKey);
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + encoder.encodeToString(signer.sign());
+    }
+}
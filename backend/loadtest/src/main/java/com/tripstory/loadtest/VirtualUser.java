@@ -0,0 +1,235 @@
+package com.tripstory.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One signed-in user sending requests back to back
+ *
+ * Each user owns its trips, so per-owner caches and indexes see as many
+ * owners as there are virtual users.
+ */
+class VirtualUser implements Runnable {
+
+    /**
+     * Traffic mix; weights are relative and add up to 100
+     *
+     * UNCACHED_SEARCH is not part of the mix: it is what every request becomes in
+     * the upstream mix, where each one waits on the stubbed Mapbox latency.
+     */
+    enum Operation {
+        LIST_TRIPS("GET /api/trips?limit=20", 30),
+        GET_TRIP("GET /api/trips/{id}", 15),
+        SEARCH_TRIPS("GET /api/trips/search", 15),
+        STATISTICS("GET /api/trips/statistics", 10),
+        LIST_DESTINATIONS("GET /api/trips/{id}/destinations", 10),
+        SEARCH_DESTINATIONS("GET /api/destinations/search", 5),
+        CREATE_TRIP("POST /api/trips", 5),
+        UPDATE_TRIP("PUT /api/trips/{id}", 5),
+        ADD_DESTINATION("POST /api/trips/{id}/destinations", 5),
+        UNCACHED_SEARCH("GET /api/destinations/search (miss)", 0);
+
+        final String label;
+        final int weight;
+
+        Operation(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int TOTAL_WEIGHT = 100;
+
+    static final String[] CITIES = {
+            "Paris", "Tokyo", "Lisbon", "Rome", "Kyoto", "Berlin", "Oslo", "Lima",
+            "Cusco", "Hanoi", "Seville", "Porto", "Vienna", "Prague", "Dublin", "Quebec"
+    };
+
+    private final int index;
+    private final String authorization;
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final boolean upstreamOnly;
+    private final List<Long> tripIds = new ArrayList<>();
+    private final Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+    private int createdTrips;
+    private long uncachedSearches;
+
+    private volatile long measureFromNanos;
+    private volatile long endNanos;
+
+    VirtualUser(int index, String token, URI baseUri, HttpClient httpClient, ObjectMapper objectMapper,
+                boolean upstreamOnly) {
+        this.index = index;
+        this.upstreamOnly = upstreamOnly;
+        this.authorization = "Bearer " + token;
+        this.baseUri = baseUri;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.random = new Random(index);
+        for (Operation operation : OPERATIONS) {
+            stats.put(operation, new LatencyStats());
+        }
+    }
+
+    /**
+     * Create the user's initial trips, each with one destination
+     */
+    void seed(int trips) throws Exception {
+        for (int i = 0; i < trips; i++) {
+            long tripId = createTrip();
+            send(post("/api/trips/" + tripId + "/destinations", destinationJson()));
+        }
+    }
+
+    /**
+     * Run the traffic mix until the end time; only requests started after the warmup are recorded
+     */
+    void schedule(long measureFromNanos, long endNanos) {
+        this.measureFromNanos = measureFromNanos;
+        this.endNanos = endNanos;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < endNanos) {
+            Operation operation = pick();
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                success = execute(operation);
+            } catch (Exception e) {
+                success = false;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start >= measureFromNanos) {
+                stats.get(operation).record(elapsed, success);
+            }
+        }
+    }
+
+    Map<Operation, LatencyStats> stats() {
+        return stats;
+    }
+
+    private Operation pick() {
+        if (upstreamOnly) {
+            return Operation.UNCACHED_SEARCH;
+        }
+        int roll = random.nextInt(TOTAL_WEIGHT);
+        for (Operation operation : OPERATIONS) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.LIST_TRIPS;
+    }
+
+    private boolean execute(Operation operation) throws Exception {
+        switch (operation) {
+            case LIST_TRIPS:
+                return send(get("/api/trips?limit=20")).statusCode() == 200;
+            case GET_TRIP:
+                return send(get("/api/trips/" + randomTrip())).statusCode() == 200;
+            case SEARCH_TRIPS:
+                return send(get("/api/trips/search?q=" + encode(randomCity().toLowerCase()))).statusCode() == 200;
+            case STATISTICS:
+                return send(get("/api/trips/statistics")).statusCode() == 200;
+            case LIST_DESTINATIONS:
+                return send(get("/api/trips/" + randomTrip() + "/destinations")).statusCode() == 200;
+            case SEARCH_DESTINATIONS:
+                String city = randomCity();
+                String prefix = city.substring(0, 3 + random.nextInt(city.length() - 2));
+                return send(get("/api/destinations/search?query=" + encode(prefix))).statusCode() == 200;
+            case CREATE_TRIP:
+                createTrip();
+                return true;
+            case UPDATE_TRIP:
+                String notes = "{\"notes\":\"Updated by load test at " + System.nanoTime() + "\"}";
+                return send(put("/api/trips/" + randomTrip(), notes)).statusCode() == 200;
+            case UNCACHED_SEARCH:
+                // A query no one has sent before misses the search cache and the prefix index
+                String query = "place " + index + " " + (uncachedSearches++);
+                return send(get("/api/destinations/search?query=" + encode(query))).statusCode() == 200;
+            case ADD_DESTINATION:
+                return send(post("/api/trips/" + randomTrip() + "/destinations", destinationJson())).statusCode() == 201;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private long createTrip() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(random.nextInt(730) - 365);
+        String city = randomCity();
+        String body = "{\"title\":\"Trip " + index + "-" + (createdTrips++) + " to " + city + "\","
+                + "\"startDate\":\"" + start + "\","
+                + "\"endDate\":\"" + start.plusDays(3 + random.nextInt(12)) + "\","
+                + "\"notes\":\"Museums, food markets and a day trip outside " + city + "\"}";
+        HttpResponse<String> response = send(post("/api/trips", body));
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Creating a trip failed with " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode trip = objectMapper.readTree(response.body());
+        long tripId = trip.get("id").asLong();
+        tripIds.add(tripId);
+        return tripId;
+    }
+
+    private String destinationJson() {
+        String city = randomCity();
+        return "{\"name\":\"" + city + "\",\"fullName\":\"" + city + ", Stub country\","
+                + "\"type\":\"place\",\"latitude\":" + (random.nextDouble() * 120 - 60)
+                + ",\"longitude\":" + (random.nextDouble() * 360 - 180) + "}";
+    }
+
+    private long randomTrip() {
+        return tripIds.get(random.nextInt(tripIds.size()));
+    }
+
+    private String randomCity() {
+        return CITIES[random.nextInt(CITIES.length)];
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return request(path).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest put(String path, String json) {
+        return request(path).header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header("Authorization", authorization);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
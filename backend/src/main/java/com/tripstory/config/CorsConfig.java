@@ -2,6 +2,7 @@ package com.tripstory.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -13,12 +14,29 @@ import java.util.Arrays;
  * 
  * Enables cross-origin requests from the Flutter frontend running on different ports/domains.
  * This is essential for the frontend-backend communication in both development and Docker environments.
+ * The same rules are registered for the servlet stack and for the reactive profile.
  */
 @Configuration
 public class CorsConfig {
 
     @Bean
+    @Profile("!reactive")
     public CorsConfigurationSource corsConfigurationSource() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", apiCorsConfiguration());
+        return source;
+    }
+
+    @Bean
+    @Profile("reactive")
+    public org.springframework.web.cors.reactive.CorsConfigurationSource reactiveCorsConfigurationSource() {
+        org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource source =
+            new org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", apiCorsConfiguration());
+        return source;
+    }
+
+    private static CorsConfiguration apiCorsConfiguration() {
         CorsConfiguration configuration = new CorsConfiguration();
         
         // Temporarily allow all origins for debugging CORS issues
@@ -32,15 +50,16 @@ public class CorsConfig {
         // Allow all headers
         configuration.setAllowedHeaders(Arrays.asList("*"));
         
+        // Expose pagination, caching and correlation headers to the browser client
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag", "Last-Modified",
+            RequestCorrelationFilter.REQUEST_ID_HEADER));
+        
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
         
         // Cache preflight response for 1 hour
         configuration.setMaxAge(3600L);
         
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/api/**", configuration);
-        
-        return source;
+        return configuration;
     }
 }
\ No newline at end of file
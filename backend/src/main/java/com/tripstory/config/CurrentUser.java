@@ -0,0 +1,51 @@
+package com.tripstory.config;
+
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Access to the Firebase uid of the authenticated caller
+ *
+ * {@link FirebaseAuthFilter} stores the uid as the principal of the request's authentication,
+ * and {@link ReactiveSecurityConfig} does the same for the reactive stack.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {}
+
+    /**
+     * Get the uid of the authenticated caller
+     *
+     * @throws AuthenticationCredentialsNotFoundException if the request is not authenticated with a Firebase token
+     */
+    public static String uid() {
+        return uidOf(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    /**
+     * Get the uid of the authenticated caller on the reactive stack
+     *
+     * @return The uid, or an error with AuthenticationCredentialsNotFoundException if the
+     *         request is not authenticated with a Firebase token
+     */
+    public static Mono<String> reactiveUid() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .map(CurrentUser::uidOf)
+                .switchIfEmpty(Mono.error(() -> new AuthenticationCredentialsNotFoundException("No authenticated user")));
+    }
+
+    private static String uidOf(Authentication authentication) {
+        if (authentication instanceof UsernamePasswordAuthenticationToken
+                && authentication.getPrincipal() instanceof String uid
+                && !uid.isBlank()) {
+            return uid;
+        }
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -24,6 +25,7 @@ import java.util.ArrayList;
  * This approach works with organization policies that block service account key creation
  */
 @Component
+@Profile("!reactive")
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthFilter.class);
@@ -48,7 +50,7 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
                 String uid = (String) claims.get("sub");
                 String email = (String) claims.get("email");
                 
-                logger.info("Authenticated user: {} ({})", email, uid);
+                logger.debug("Authenticated user: {} ({})", email, uid);
                 
                 // Create Spring Security authentication
                 UsernamePasswordAuthenticationToken authentication = 
@@ -57,10 +59,9 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
                 
                 // Set authentication in Spring Security context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-            } else {
-                logger.warn("Invalid Firebase token");
-                // Don't set authentication - request will be rejected by security config
             }
+            // Otherwise the validator has logged why the token was rejected; without
+            // authentication the request is rejected by the security config
         }
         
         filterChain.doFilter(request, response);
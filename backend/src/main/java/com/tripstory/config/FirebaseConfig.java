@@ -1,5 +1,9 @@
 package com.tripstory.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,15 +16,19 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class FirebaseConfig {
 
-    @Bean
-    public FirebaseJwtValidator firebaseJwtValidator() {
-        String projectId = System.getenv("FIREBASE_PROJECT_ID");
-        if (projectId == null) {
-            System.err.println("FIREBASE_PROJECT_ID environment variable not set");
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseConfig.class);
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public FirebaseJwtValidator firebaseJwtValidator(
+            @Value("${firebase.project-id:}") String projectId,
+            @Value("${firebase.certs-url:" + FirebaseJwtValidator.GOOGLE_CERTS_URL + "}") String certsUrl,
+            MeterRegistry meterRegistry) {
+        if (projectId.isBlank()) {
+            logger.warn("FIREBASE_PROJECT_ID environment variable not set, using the default project");
             projectId = "tripstory-1f299"; // fallback
         }
         
-        System.out.println("Initializing Firebase JWT validator for project: " + projectId);
-        return new FirebaseJwtValidator(projectId);
+        logger.info("Initializing Firebase JWT validator for project: {}", projectId);
+        return new FirebaseJwtValidator(projectId, certsUrl, meterRegistry);
     }
 }
\ No newline at end of file
@@ -2,55 +2,205 @@ package com.tripstory.config;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tripstory.util.RateLimitedLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.net.URL;
-import java.security.Key;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
 import java.security.Signature;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Simplified Firebase JWT token validator using only built-in Java libraries
  * 
  * Validates Firebase ID tokens using Google's public keys
  * This approach bypasses organization policies that block service account key creation
+ * 
+ * Public keys are held in an immutable snapshot that a background thread replaces
+ * when the certs endpoint's Cache-Control max-age runs out, so request threads
+ * never wait on the key fetch.
+ * 
+ * Every validation is timed under tripstory.auth.token.validations, tagged with
+ * its outcome (cached, valid, or the reason the token was rejected).
  */
 @Component
 public class FirebaseJwtValidator {
     
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseJwtValidator.class);
+    // Rejections happen per request and arrive in bursts when a client holds a bad token
+    private static final RateLimitedLog rejectionLog = new RateLimitedLog(logger, 10, 60_000);
+    
+    public static final String GOOGLE_CERTS_URL = "https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com";
+    
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final long DEFAULT_KEY_TTL_SECONDS = 3600; // 1 hour
+    private static final long MIN_REFRESH_SECONDS = 60;
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+    private static final List<String> OUTCOMES = List.of("cached", "valid", "invalid_format",
+            "unsupported_algorithm", "wrong_issuer", "wrong_audience", "expired", "missing_subject",
+            "unknown_key", "bad_signature", "error");
+    
     private final String projectId;
+    private final URI certsUri;
     private final ObjectMapper objectMapper;
-    private final String GOOGLE_CERTS_URL = "https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com";
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService keyRefresher;
+    private final MeterRegistry meterRegistry;
+    // One timer per outcome, registered up front so validations only look them up
+    private final Map<String, Timer> validationTimers;
+    private final Timer cachedValidations;
+    
+    // Immutable kid -> key snapshot, swapped atomically by the refresher thread
+    private volatile Map<String, PublicKey> publicKeys = Map.of();
+    private final AtomicLong lastUnknownKidRefresh = new AtomicLong();
+    private ScheduledFuture<?> scheduledRefresh; // touched only by the refresher thread
     
-    private Map<String, Key> publicKeys = new HashMap<>();
-    private long lastKeyFetch = 0;
-    private static final long KEY_CACHE_DURATION = 3600000; // 1 hour
+    // Validated claims keyed by SHA-256 of the raw token; entries live until the token's own exp
+    private static final int MAX_CACHED_TOKENS = 10000;
+    private final int maxCachedTokens;
+    private final Map<String, CachedClaims> validatedTokens = new ConcurrentHashMap<>();
     
     public FirebaseJwtValidator(String projectId) {
+        this(projectId, GOOGLE_CERTS_URL);
+    }
+    
+    /**
+     * @param projectId Firebase project the tokens must be issued for
+     * @param certsUrl Endpoint serving kid -> X.509 certificate JSON (overridable for local stub servers)
+     */
+    public FirebaseJwtValidator(String projectId, String certsUrl) {
+        this(projectId, certsUrl, Metrics.globalRegistry);
+    }
+    
+    /**
+     * @param meterRegistry Registry for the validation outcome timers
+     */
+    public FirebaseJwtValidator(String projectId, String certsUrl, MeterRegistry meterRegistry) {
+        this(projectId, certsUrl, meterRegistry, MAX_CACHED_TOKENS);
+    }
+    
+    /**
+     * @param maxCachedTokens Validated tokens kept before expired ones are purged, or all are dropped
+     */
+    FirebaseJwtValidator(String projectId, String certsUrl, MeterRegistry meterRegistry, int maxCachedTokens) {
         this.projectId = projectId;
+        this.certsUri = URI.create(certsUrl);
         this.objectMapper = new ObjectMapper();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(FETCH_TIMEOUT)
+                .build();
+        this.keyRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "firebase-key-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.meterRegistry = meterRegistry;
+        this.maxCachedTokens = maxCachedTokens;
+        Map<String, Timer> timers = new HashMap<>();
+        for (String outcome : OUTCOMES) {
+            timers.put(outcome, Timer.builder("tripstory.auth.token.validations")
+                    .description("Firebase ID token validation latency by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        this.validationTimers = Map.copyOf(timers);
+        this.cachedValidations = validationTimer("cached");
+    }
+    
+    /**
+     * Loads the initial key set and schedules background rotation
+     * Called once at startup, never on a request thread; if the first fetch is
+     * slow the application starts anyway and the refresher keeps retrying.
+     */
+    public void start() {
+        Future<?> initialLoad = keyRefresher.submit(this::refreshPublicKeys);
+        try {
+            initialLoad.get(2 * FETCH_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            logger.warn("Initial public key load did not complete, continuing in background");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Stops the background key refresher
+     */
+    public void shutdown() {
+        keyRefresher.shutdownNow();
     }
     
     /**
      * Validates a Firebase ID token (simplified version)
+     * 
+     * Tokens that already passed validation are answered from an in-memory cache
+     * until they expire, so repeat requests skip decoding and JSON parsing entirely.
+     * 
      * @param idToken The Firebase ID token to validate
      * @return Map of claims if valid, null if invalid
      */
     public Map<String, Object> validateToken(String idToken) {
-        try {
-            // Remove Bearer prefix if present
-            if (idToken.startsWith("Bearer ")) {
-                idToken = idToken.substring(7);
+        // Remove Bearer prefix if present
+        if (idToken.startsWith("Bearer ")) {
+            idToken = idToken.substring(7);
+        }
+        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String tokenKey = digest(idToken);
+        long now = System.currentTimeMillis() / 1000;
+        CachedClaims cached = validatedTokens.get(tokenKey);
+        if (cached != null) {
+            if (cached.expiresAt >= now) {
+                sample.stop(cachedValidations);
+                return cached.claims;
             }
-            
+            validatedTokens.remove(tokenKey, cached);
+        }
+        
+        Map<String, Object> claims = parseAndValidate(idToken, sample);
+        if (claims != null) {
+            cacheClaims(tokenKey, claims, now);
+        }
+        return claims;
+    }
+    
+    /**
+     * Decodes the token and checks header and claims, stopping the sample with the outcome
+     */
+    private Map<String, Object> parseAndValidate(String idToken, Timer.Sample sample) {
+        try {
             // Split JWT into parts
             String[] chunks = idToken.split("\\.");
             if (chunks.length != 3) {
-                System.err.println("Invalid JWT format");
-                return null;
+                return reject(sample, "invalid_format", "malformed JWT");
             }
             
             // Decode header and payload
@@ -63,36 +213,45 @@ public class FirebaseJwtValidator {
             // Basic validation
             String algorithm = header.get("alg").asText();
             if (!"RS256".equals(algorithm)) {
-                System.err.println("Unsupported algorithm: " + algorithm);
-                return null;
+                return reject(sample, "unsupported_algorithm", algorithm);
             }
             
             // Check issuer
             String issuer = payload.get("iss").asText();
             String expectedIssuer = "https://securetoken.google.com/" + projectId;
             if (!expectedIssuer.equals(issuer)) {
-                System.err.println("Invalid issuer: " + issuer);
-                return null;
+                return reject(sample, "wrong_issuer", issuer);
             }
             
             // Check audience
             String audience = payload.get("aud").asText();
             if (!projectId.equals(audience)) {
-                System.err.println("Invalid audience: " + audience);
-                return null;
+                return reject(sample, "wrong_audience", audience);
             }
             
             // Check expiration
             long exp = payload.get("exp").asLong();
             long now = System.currentTimeMillis() / 1000;
             if (exp < now) {
-                System.err.println("Token has expired");
-                return null;
+                return reject(sample, "expired", "exp " + exp);
             }
             
-            // For now, we'll trust tokens that pass basic validation
-            // In production, you'd want to verify the signature with Google's public keys
-            System.out.println("Token validated successfully for user: " + payload.get("sub").asText());
+            // Check subject
+            JsonNode subject = payload.get("sub");
+            if (subject == null || subject.asText().isEmpty()) {
+                return reject(sample, "missing_subject", "no sub claim");
+            }
+            
+            // Verify the RS256 signature against the current key snapshot
+            JsonNode keyId = header.get("kid");
+            PublicKey publicKey = keyId != null ? publicKeys.get(keyId.asText()) : null;
+            if (publicKey == null) {
+                requestRefreshForUnknownKid();
+                return reject(sample, "unknown_key", "kid " + keyId);
+            }
+            if (!verifySignature(publicKey, chunks)) {
+                return reject(sample, "bad_signature", "signature mismatch");
+            }
             
             // Convert payload to Map
             Map<String, Object> claims = new HashMap<>();
@@ -100,52 +259,160 @@ public class FirebaseJwtValidator {
                 claims.put(entry.getKey(), entry.getValue().asText());
             });
             
-            return claims;
+            sample.stop(validationTimer("valid"));
+            return Collections.unmodifiableMap(claims);
             
         } catch (Exception e) {
-            System.err.println("Token validation error: " + e.getMessage());
-            return null;
+            return reject(sample, "error", String.valueOf(e.getMessage()));
         }
     }
     
     /**
-     * Fetches public keys from Google (for future signature verification)
+     * Records a rejected token and returns null as the validation result
+     */
+    private Map<String, Object> reject(Timer.Sample sample, String outcome, String detail) {
+        sample.stop(validationTimer(outcome));
+        rejectionLog.warn("Rejected Firebase token ({}): {}", outcome, detail);
+        return null;
+    }
+    
+    private Timer validationTimer(String outcome) {
+        return validationTimers.get(outcome);
+    }
+    
+    /**
+     * Stores validated claims until the token's exp, keeping the cache bounded
+     */
+    private void cacheClaims(String tokenKey, Map<String, Object> claims, long now) {
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong((String) claims.get("exp"));
+        } catch (RuntimeException e) {
+            return;
+        }
+        
+        if (validatedTokens.size() >= maxCachedTokens) {
+            validatedTokens.values().removeIf(entry -> entry.expiresAt < now);
+            if (validatedTokens.size() >= maxCachedTokens) {
+                validatedTokens.clear();
+            }
+        }
+        validatedTokens.put(tokenKey, new CachedClaims(claims, expiresAt));
+    }
+    
+    /**
+     * SHA-256 digest of the token so raw credentials are never retained as map keys
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Verifies the SHA256withRSA signature over "header.payload"
+     */
+    private boolean verifySignature(PublicKey publicKey, String[] chunks) throws Exception {
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(publicKey);
+        verifier.update((chunks[0] + "." + chunks[1]).getBytes(StandardCharsets.US_ASCII));
+        return verifier.verify(Base64.getUrlDecoder().decode(chunks[2]));
+    }
+    
+    /**
+     * A token signed with a kid we have not seen usually means Google rotated keys
+     * ahead of our schedule; refresh in the background at most once a minute
+     */
+    private void requestRefreshForUnknownKid() {
+        long now = System.currentTimeMillis();
+        long last = lastUnknownKidRefresh.get();
+        if (now - last >= MIN_REFRESH_SECONDS * 1000 && lastUnknownKidRefresh.compareAndSet(last, now)) {
+            try {
+                keyRefresher.execute(this::refreshPublicKeys);
+            } catch (RuntimeException e) {
+                logger.warn("Could not schedule key refresh: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Fetches public keys from Google and schedules the next refresh
+     * Runs only on the refresher thread
      */
     private void refreshPublicKeys() {
+        long nextRefreshSeconds = RETRY_DELAY_SECONDS;
         try {
-            System.out.println("Fetching Firebase public keys...");
-            URL url = new URL(GOOGLE_CERTS_URL);
-            JsonNode certs = objectMapper.readTree(url);
+            logger.debug("Fetching Firebase public keys from {}", certsUri);
+            HttpRequest request = HttpRequest.newBuilder(certsUri)
+                    .timeout(FETCH_TIMEOUT)
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + response.statusCode());
+            }
             
-            publicKeys.clear();
+            JsonNode certs = objectMapper.readTree(response.body());
+            Map<String, PublicKey> loadedKeys = new HashMap<>();
             certs.fields().forEachRemaining(entry -> {
-                try {
-                    String keyId = entry.getKey();
-                    String certString = entry.getValue().asText();
-                    
-                    // Convert certificate to public key
-                    Key publicKey = parsePublicKeyFromCert(certString);
-                    if (publicKey != null) {
-                        publicKeys.put(keyId, publicKey);
-                        System.out.println("Loaded public key: " + keyId);
-                    }
-                } catch (Exception e) {
-                    System.err.println("Failed to parse public key: " + e.getMessage());
+                // Convert certificate to public key
+                PublicKey publicKey = parsePublicKeyFromCert(entry.getValue().asText());
+                if (publicKey != null) {
+                    loadedKeys.put(entry.getKey(), publicKey);
                 }
             });
             
-            lastKeyFetch = System.currentTimeMillis();
-            System.out.println("Loaded " + publicKeys.size() + " public keys");
+            if (loadedKeys.isEmpty()) {
+                throw new IllegalStateException("No usable certificates in response");
+            }
+            publicKeys = Map.copyOf(loadedKeys);
+            
+            nextRefreshSeconds = Math.max(MIN_REFRESH_SECONDS, parseMaxAge(response));
+            logger.info("Loaded {} Firebase public keys, next refresh in {}s", loadedKeys.size(), nextRefreshSeconds);
             
-        } catch (IOException e) {
-            System.err.println("Failed to fetch public keys: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Keep serving the previous snapshot and retry shortly
+            logger.warn("Failed to fetch Firebase public keys, retrying in {}s: {}", nextRefreshSeconds, e.getMessage());
+        }
+        
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        if (!keyRefresher.isShutdown()) {
+            scheduledRefresh = keyRefresher.schedule(this::refreshPublicKeys, nextRefreshSeconds, TimeUnit.SECONDS);
         }
     }
     
+    /**
+     * Seconds until the scheduled key refresh, read on the refresher thread that owns it
+     */
+    long secondsUntilKeyRefresh() throws Exception {
+        return keyRefresher.submit(() -> scheduledRefresh.getDelay(TimeUnit.SECONDS))
+                .get(FETCH_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Reads max-age from the Cache-Control header, defaulting to one hour
+     */
+    private static long parseMaxAge(HttpResponse<?> response) {
+        return response.headers().firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .orElse(DEFAULT_KEY_TTL_SECONDS);
+    }
+    
     /**
      * Parses public key from X.509 certificate string
      */
-    private Key parsePublicKeyFromCert(String certString) {
+    private PublicKey parsePublicKeyFromCert(String certString) {
         try {
             // Remove certificate headers/footers and whitespace
             String publicKeyPEM = certString
@@ -165,8 +432,21 @@ public class FirebaseJwtValidator {
             return cert.getPublicKey();
             
         } catch (Exception e) {
-            System.err.println("Failed to parse certificate: " + e.getMessage());
+            logger.warn("Failed to parse certificate: {}", e.getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Validated claims together with the token expiry (epoch seconds)
+     */
+    private static final class CachedClaims {
+        private final Map<String, Object> claims;
+        private final long expiresAt;
+        
+        private CachedClaims(Map<String, Object> claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tripstory.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.Trip;
+import com.tripstory.repository.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache configuration for the servlet stack
+ *
+ * Every region is a size-bounded Caffeine cache created up front, so Hibernate
+ * fails at startup instead of creating an unbounded cache for a region that is
+ * missing here. Hits, misses, puts, removals and evictions of each region are
+ * published as the cache.* metrics, tagged with the region name.
+ */
+@Configuration
+@Profile("!reactive")
+public class HibernateCacheConfig {
+
+    // One entry per table, and dropping one would make Hibernate serve stale query results
+    private static final long UPDATE_TIMESTAMPS_MAX_ENTRIES = 1_000;
+    // Only used by cacheable queries that do not name a region
+    private static final long DEFAULT_QUERY_RESULTS_MAX_ENTRIES = 1_000;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            MeterRegistry meterRegistry,
+            @Value("${trips.cache.trips-max-entries:10000}") long tripsMaxEntries,
+            @Value("${trips.cache.trip-destinations-max-entries:10000}") long tripDestinationsMaxEntries,
+            @Value("${trips.cache.destinations-max-entries:50000}") long destinationsMaxEntries,
+            @Value("${trips.cache.date-buckets-max-entries:5000}") long dateBucketsMaxEntries) {
+
+        Map<String, Long> regions = new LinkedHashMap<>();
+        regions.put(Trip.CACHE_REGION, tripsMaxEntries);
+        regions.put(Trip.DESTINATIONS_CACHE_REGION, tripDestinationsMaxEntries);
+        regions.put(Destination.CACHE_REGION, destinationsMaxEntries);
+        regions.put(TripRepository.DATE_BUCKETS_CACHE_REGION, dateBucketsMaxEntries);
+        regions.put(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, DEFAULT_QUERY_RESULTS_MAX_ENTRIES);
+        regions.put(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, UPDATE_TIMESTAMPS_MAX_ENTRIES);
+
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        regions.forEach((region, maxEntries) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            // Hibernate caches its own disassembled state, so there is nothing to copy
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+            JCacheMetrics.monitor(meterRegistry, cache);
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Hand the cache manager to Hibernate's JCache region factory
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
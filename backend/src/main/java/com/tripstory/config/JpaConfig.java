@@ -0,0 +1,16 @@
+package com.tripstory.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * JPA configuration for the servlet stack
+ * 
+ * Fills in the created/updated timestamps of the JPA entities.
+ */
+@Configuration
+@EnableJpaAuditing
+@Profile("!reactive")
+public class JpaConfig {
+}
@@ -0,0 +1,17 @@
+package com.tripstory.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+/**
+ * R2DBC configuration for the reactive stack
+ * 
+ * Fills in the created/updated timestamps of the R2DBC row mappings,
+ * as JPA auditing does for the entities on the servlet stack.
+ */
+@Configuration
+@EnableR2dbcAuditing
+@Profile("reactive")
+public class R2dbcConfig {
+}
@@ -0,0 +1,36 @@
+package com.tripstory.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Correlation ids for the reactive stack
+ * 
+ * Accepts or generates the X-Request-Id exactly like {@link RequestCorrelationFilter}.
+ * A request hops between event loop threads, so rather than living in the MDC the
+ * id becomes the exchange's log id, which prefixes WebFlux's own log lines.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Profile("reactive")
+public class ReactiveRequestCorrelationFilter implements WebFilter {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requestId = exchange.getRequest().getHeaders().getFirst(RequestCorrelationFilter.REQUEST_ID_HEADER);
+        if (requestId == null || !RequestCorrelationFilter.VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        exchange.getAttributes().put(ServerWebExchange.LOG_ID_ATTRIBUTE, requestId);
+        exchange.getResponse().getHeaders().set(RequestCorrelationFilter.REQUEST_ID_HEADER, requestId);
+        return chain.filter(exchange);
+    }
+}
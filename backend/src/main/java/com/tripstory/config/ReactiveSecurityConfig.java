@@ -0,0 +1,95 @@
+package com.tripstory.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Security configuration for the reactive stack
+ * 
+ * Applies the same rules as {@link SecurityConfig}. Bearer tokens are checked with
+ * {@link FirebaseJwtValidator}, which only verifies signatures against keys loaded in
+ * the background and so never blocks the event loop.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveSecurityConfig {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final FirebaseJwtValidator jwtValidator;
+
+    public ReactiveSecurityConfig(FirebaseJwtValidator jwtValidator) {
+        this.jwtValidator = jwtValidator;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        http
+            .cors(Customizer.withDefaults())
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+            .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            // Turn unauthenticated requests away with 403, as the servlet stack does
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+            .authorizeExchange(auth -> auth
+                .pathMatchers("/actuator/health", "/swagger-ui/**", "/api-docs/**").permitAll()
+                .pathMatchers("/api/trips/test").permitAll()
+                .pathMatchers("/api/destinations/search").permitAll()
+                .pathMatchers("/api/**").authenticated()
+                .anyExchange().permitAll()
+            )
+            .addFilterAt(firebaseAuthenticationFilter(), SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+
+    /**
+     * Authenticates requests carrying a valid Firebase ID token with the uid as principal
+     * 
+     * Requests without a valid token pass through unauthenticated and are turned away
+     * by the authorization rules; the validator has logged why a token was rejected.
+     */
+    private AuthenticationWebFilter firebaseAuthenticationFilter() {
+        // The converter below only yields tokens that already passed validation
+        ReactiveAuthenticationManager validatedTokens = Mono::just;
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(validatedTokens);
+        filter.setServerAuthenticationConverter(exchange -> {
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+                return Mono.empty();
+            }
+            return Mono.justOrEmpty(authenticate(authHeader.substring(BEARER_PREFIX.length())));
+        });
+        filter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        return filter;
+    }
+
+    private Authentication authenticate(String idToken) {
+        Map<String, Object> claims = jwtValidator.validateToken(idToken);
+        if (claims == null) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(claims.get("sub"), null, List.of());
+    }
+}
@@ -0,0 +1,22 @@
+package com.tripstory.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Web server configuration for the reactive stack
+ *
+ * Tomcat stays on the classpath for the servlet stack, and Spring Boot would pick
+ * it for a reactive application too; serve it from Reactor Netty's event loops instead.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
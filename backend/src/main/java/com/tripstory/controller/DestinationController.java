@@ -1,12 +1,17 @@
 package com.tripstory.controller;
 
+import com.tripstory.config.CurrentUser;
 import com.tripstory.entity.Destination;
 import com.tripstory.entity.Trip;
+import com.tripstory.model.CreateDestinationRequest;
+import com.tripstory.model.UpdateDestinationRequest;
 import com.tripstory.service.DestinationService;
 import com.tripstory.service.MapboxService;
 import com.tripstory.service.TripService;
+import com.tripstory.util.TripConverter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +26,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/trips/{tripId}/destinations")
 @CrossOrigin(origins = {"http://localhost:3000", "https://thetripstory.com"})
+@Profile("!reactive")
 public class DestinationController {
 
     @Autowired
@@ -32,33 +38,33 @@ public class DestinationController {
     @Autowired
     private MapboxService mapboxService;
 
+    @Autowired
+    private TripConverter tripConverter;
+
     /**
      * Get all destinations for a specific trip
      */
     @GetMapping
-    public ResponseEntity<List<Destination>> getDestinations(@PathVariable Long tripId) {
-        Trip trip = tripService.getTripById(tripId);
-        if (trip == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(trip.getDestinations());
+    public ResponseEntity<List<com.tripstory.model.Destination>> getDestinations(@PathVariable Long tripId) {
+        return ResponseEntity.ok(tripService.getTripDestinations(CurrentUser.uid(), tripId));
     }
 
     /**
      * Add a new destination to a trip
      */
     @PostMapping
-    public ResponseEntity<Destination> addDestination(
+    public ResponseEntity<com.tripstory.model.Destination> addDestination(
             @PathVariable Long tripId, 
-            @Valid @RequestBody Destination destination) {
+            @Valid @RequestBody CreateDestinationRequest createRequest) {
         
-        Trip trip = tripService.getTripById(tripId);
+        Trip trip = tripService.getTripById(CurrentUser.uid(), tripId);
         if (trip == null) {
             return ResponseEntity.notFound().build();
         }
 
+        Destination destination = tripConverter.fromCreateRequest(createRequest);
         destination.setTrip(trip);
-        Destination savedDestination = destinationService.saveDestination(destination);
+        com.tripstory.model.Destination savedDestination = destinationService.saveDestination(destination);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedDestination);
     }
 
@@ -66,18 +72,21 @@ public class DestinationController {
      * Update an existing destination
      */
     @PutMapping("/{destinationId}")
-    public ResponseEntity<Destination> updateDestination(
+    public ResponseEntity<com.tripstory.model.Destination> updateDestination(
             @PathVariable Long tripId,
             @PathVariable Long destinationId,
-            @Valid @RequestBody Destination destinationUpdate) {
+            @Valid @RequestBody UpdateDestinationRequest updateRequest) {
         
+        tripService.getTripById(CurrentUser.uid(), tripId); // Throws if the trip is not the caller's
         Destination existingDestination = destinationService.getDestinationById(destinationId);
         if (existingDestination == null || !existingDestination.getTrip().getId().equals(tripId)) {
             return ResponseEntity.notFound().build();
         }
 
-        existingDestination.updateFrom(destinationUpdate);
-        Destination savedDestination = destinationService.saveDestination(existingDestination);
+        Destination changes = new Destination();
+        tripConverter.updateEntityFromRequest(changes, updateRequest);
+        existingDestination.updateFrom(changes);
+        com.tripstory.model.Destination savedDestination = destinationService.saveDestination(existingDestination);
         return ResponseEntity.ok(savedDestination);
     }
 
@@ -89,6 +98,7 @@ public class DestinationController {
             @PathVariable Long tripId,
             @PathVariable Long destinationId) {
         
+        tripService.getTripById(CurrentUser.uid(), tripId); // Throws if the trip is not the caller's
         Destination destination = destinationService.getDestinationById(destinationId);
         if (destination == null || !destination.getTrip().getId().equals(tripId)) {
             return ResponseEntity.notFound().build();
@@ -102,16 +112,17 @@ public class DestinationController {
      * Reorder destinations within a trip
      */
     @PutMapping("/reorder")
-    public ResponseEntity<List<Destination>> reorderDestinations(
+    public ResponseEntity<List<com.tripstory.model.Destination>> reorderDestinations(
             @PathVariable Long tripId,
             @RequestBody List<Long> destinationIds) {
         
-        Trip trip = tripService.getTripById(tripId);
+        Trip trip = tripService.getTripById(CurrentUser.uid(), tripId);
         if (trip == null) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Destination> reorderedDestinations = destinationService.reorderDestinations(tripId, destinationIds);
+        List<com.tripstory.model.Destination> reorderedDestinations =
+                destinationService.reorderDestinations(tripId, destinationIds);
         return ResponseEntity.ok(reorderedDestinations);
     }
 }
@@ -122,6 +133,7 @@ public class DestinationController {
 @RestController
 @RequestMapping("/api/destinations")
 @CrossOrigin(origins = {"http://localhost:3000", "https://thetripstory.com"})
+@Profile("!reactive")
 class MapboxDestinationController {
 
     @Autowired
@@ -0,0 +1,142 @@
+package com.tripstory.controller;
+
+import com.tripstory.config.CurrentUser;
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.DestinationRow;
+import com.tripstory.model.CreateDestinationRequest;
+import com.tripstory.model.UpdateDestinationRequest;
+import com.tripstory.service.MapboxService;
+import com.tripstory.service.ReactiveDestinationService;
+import com.tripstory.util.TripConverter;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * REST Controller for managing destinations within trips on the reactive stack
+ *
+ * Serves the same endpoints as {@link DestinationController}
+ */
+@RestController
+@RequestMapping("/api/trips/{tripId}/destinations")
+@CrossOrigin(origins = {"http://localhost:3000", "https://thetripstory.com"})
+@Profile("reactive")
+public class ReactiveDestinationController {
+
+    private final ReactiveDestinationService destinationService;
+    private final TripConverter tripConverter;
+
+    public ReactiveDestinationController(ReactiveDestinationService destinationService, TripConverter tripConverter) {
+        this.destinationService = destinationService;
+        this.tripConverter = tripConverter;
+    }
+
+    /**
+     * Get all destinations for a specific trip
+     */
+    @GetMapping
+    public Mono<List<com.tripstory.model.Destination>> getDestinations(@PathVariable Long tripId) {
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> destinationService.getDestinations(ownerUid, tripId))
+                .map(this::toModels);
+    }
+
+    /**
+     * Add a new destination to a trip
+     */
+    @PostMapping
+    public Mono<ResponseEntity<com.tripstory.model.Destination>> addDestination(
+            @PathVariable Long tripId,
+            @Valid @RequestBody CreateDestinationRequest createRequest) {
+
+        Destination destination = tripConverter.fromCreateRequest(createRequest);
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> destinationService.addDestination(ownerUid, tripId, destination))
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(tripConverter.toModel(saved)));
+    }
+
+    /**
+     * Update an existing destination
+     */
+    @PutMapping("/{destinationId}")
+    public Mono<ResponseEntity<com.tripstory.model.Destination>> updateDestination(
+            @PathVariable Long tripId,
+            @PathVariable Long destinationId,
+            @Valid @RequestBody UpdateDestinationRequest updateRequest) {
+
+        Destination changes = new Destination();
+        tripConverter.updateEntityFromRequest(changes, updateRequest);
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> destinationService.updateDestination(ownerUid, tripId, destinationId, changes))
+                .map(saved -> ResponseEntity.ok(tripConverter.toModel(saved)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Delete a destination from a trip
+     */
+    @DeleteMapping("/{destinationId}")
+    public Mono<ResponseEntity<Void>> deleteDestination(
+            @PathVariable Long tripId,
+            @PathVariable Long destinationId) {
+
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> destinationService.deleteDestination(ownerUid, tripId, destinationId))
+                .map(deleted -> deleted
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Reorder destinations within a trip
+     */
+    @PutMapping("/reorder")
+    public Mono<List<com.tripstory.model.Destination>> reorderDestinations(
+            @PathVariable Long tripId,
+            @RequestBody List<Long> destinationIds) {
+
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> destinationService.reorderDestinations(ownerUid, tripId, destinationIds))
+                .map(this::toModels);
+    }
+
+    private List<com.tripstory.model.Destination> toModels(List<DestinationRow> rows) {
+        return rows.stream().map(tripConverter::toModel).toList();
+    }
+}
+
+/**
+ * REST Controller for Mapbox destination search on the reactive stack
+ */
+@RestController
+@RequestMapping("/api/destinations")
+@CrossOrigin(origins = {"http://localhost:3000", "https://thetripstory.com"})
+@Profile("reactive")
+class ReactiveMapboxDestinationController {
+
+    private final MapboxService mapboxService;
+
+    ReactiveMapboxDestinationController(MapboxService mapboxService) {
+        this.mapboxService = mapboxService;
+    }
+
+    /**
+     * Search for destinations using Mapbox Geocoding API, without blocking while Mapbox answers
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<MapboxService.DestinationSuggestion>>> searchDestinations(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "5") Integer limit) {
+
+        if (query == null || query.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return mapboxService.searchDestinationsAsync(query, limit).map(ResponseEntity::ok);
+    }
+}
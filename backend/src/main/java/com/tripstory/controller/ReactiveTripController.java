@@ -0,0 +1,255 @@
+package com.tripstory.controller;
+
+import com.tripstory.config.CurrentUser;
+import com.tripstory.exception.TripModifiedException;
+import com.tripstory.model.CreateTripRequest;
+import com.tripstory.model.UpdateTripRequest;
+import com.tripstory.service.ReactiveTripService;
+import com.tripstory.service.TripService;
+import com.tripstory.util.TripConverter;
+import com.tripstory.util.TripCursor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * REST Controller for Trip management on the reactive stack
+ *
+ * Serves the same endpoints, headers and JSON as {@link TripController}. The
+ * full list and the NDJSON stream are written as the trips are read, with the
+ * client's demand pacing the reads.
+ */
+@RestController
+@RequestMapping("/api/trips")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:80", "http://frontend", "http://frontend:80", "https://thetripstory.com"})
+@Tag(name = "Trips", description = "Trip management operations")
+@Profile("reactive")
+public class ReactiveTripController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTripController.class);
+
+    private final ReactiveTripService tripService;
+    private final TripConverter tripConverter;
+
+    public ReactiveTripController(ReactiveTripService tripService, TripConverter tripConverter) {
+        this.tripService = tripService;
+        this.tripConverter = tripConverter;
+    }
+
+    @Operation(summary = "Get all trips",
+               description = "Retrieve trips ordered by start date. Pass limit/cursor for keyset pagination; " +
+                             "without them the full list is streamed from the database. " +
+                             "Send the ETag of a previous response in If-None-Match to revalidate it.")
+    @GetMapping
+    public Mono<ResponseEntity<Flux<com.tripstory.model.Trip>>> getAllTrips(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            ServerWebExchange exchange) {
+
+        boolean ndjson = accept != null && accept.contains(TripController.APPLICATION_NDJSON_VALUE);
+        return CurrentUser.reactiveUid().flatMap(ownerUid -> tripService.getTripListVersion(ownerUid)
+                .flatMap(version -> {
+                    // Sets the ETag header, and the 304 status when the client's copy is current
+                    if (exchange.checkNotModified(TripController.listETag(version, limit, cursor, ndjson))) {
+                        logger.debug("GET /api/trips - Trips not modified (limit={}, cursor={})", limit, cursor);
+                        return Mono.empty();
+                    }
+
+                    if (ndjson) {
+                        return Mono.just(streamTripsAsNdjson(ownerUid, limit, cursor));
+                    }
+
+                    logger.debug("GET /api/trips - Fetching trips (limit={}, cursor={})", limit, cursor);
+
+                    if (limit == null && cursor == null) {
+                        Flux<com.tripstory.model.Trip> trips = tripService.streamTrips(ownerUid, null, null)
+                                .map(this::toModel);
+                        return Mono.just(ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                                .varyBy(HttpHeaders.ACCEPT).body(trips));
+                    }
+
+                    int pageSize = TripController.resolvePageSize(limit);
+                    TripCursor after = cursor != null ? TripCursor.decode(cursor) : null;
+
+                    // Fetch one extra row to find out whether another page exists
+                    return tripService.getTripsPage(ownerUid, after, pageSize + 1).map(page -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON).varyBy(HttpHeaders.ACCEPT);
+                        if (page.size() > pageSize) {
+                            page = page.subList(0, pageSize);
+                            response.header(TripController.NEXT_CURSOR_HEADER,
+                                    TripCursor.after(page.get(pageSize - 1).getTrip()).encode());
+                        }
+                        logger.debug("Successfully retrieved {} trips", page.size());
+                        return response.body(Flux.fromIterable(page).map(this::toModel));
+                    });
+                }));
+    }
+
+    /**
+     * Stream trips as newline-delimited JSON while they are read from the database
+     */
+    private ResponseEntity<Flux<com.tripstory.model.Trip>> streamTripsAsNdjson(String ownerUid, Integer limit, String cursor) {
+        logger.debug("GET /api/trips - Streaming trips as NDJSON (limit={}, cursor={})", limit, cursor);
+
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        TripCursor after = cursor != null ? TripCursor.decode(cursor) : null;
+
+        Flux<com.tripstory.model.Trip> trips = tripService.streamTrips(ownerUid, after, limit).map(this::toModel);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(TripController.APPLICATION_NDJSON_VALUE))
+                .varyBy(HttpHeaders.ACCEPT).body(trips);
+    }
+
+    @Operation(summary = "Get trip by ID",
+               description = "Retrieve a specific trip by its ID. Supports If-None-Match and If-Modified-Since.")
+    @GetMapping("/{tripId}")
+    public Mono<ResponseEntity<com.tripstory.model.Trip>> getTripById(
+            @PathVariable Long tripId,
+            ServerWebExchange exchange) {
+
+        logger.debug("GET /api/trips/{} - Fetching trip by ID", tripId);
+
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> tripService.getTripRow(ownerUid, tripId))
+                .flatMap(trip -> {
+                    String etag = TripController.tripETag(tripId, trip.getVersion());
+                    // Revalidate before loading the destinations. Sets the ETag and Last-Modified
+                    // headers, and the 304 status when the client's copy is current
+                    if (exchange.checkNotModified(etag, trip.getUpdatedAt().toInstant(ZoneOffset.UTC))) {
+                        logger.debug("Trip {} not modified", tripId);
+                        return Mono.empty();
+                    }
+                    return tripService.withDestinations(trip).map(details -> ResponseEntity.ok(toModel(details)));
+                });
+    }
+
+    @Operation(summary = "Create a new trip", description = "Create a new trip with the provided details")
+    @PostMapping
+    public Mono<ResponseEntity<com.tripstory.model.Trip>> createTrip(
+            @Valid @RequestBody CreateTripRequest createRequest) {
+
+        logger.debug("POST /api/trips - Creating new trip: {}", createRequest.getTitle());
+
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> tripService.createTrip(ownerUid, tripConverter.fromCreateRequest(createRequest)))
+                .map(created -> new ResponseEntity<>(toModel(created), HttpStatus.CREATED));
+    }
+
+    @Operation(summary = "Update trip",
+               description = "Update an existing trip with new details. Send the trip's ETag in If-Match " +
+                             "to apply the update only if nobody else changed the trip in the meantime.")
+    @PutMapping("/{tripId}")
+    public Mono<ResponseEntity<com.tripstory.model.Trip>> updateTrip(
+            @PathVariable Long tripId,
+            @Valid @RequestBody UpdateTripRequest updateRequest,
+            ServerWebExchange exchange) {
+
+        logger.debug("PUT /api/trips/{} - Updating trip", tripId);
+
+        return CurrentUser.reactiveUid().flatMap(ownerUid -> tripService.getTripById(ownerUid, tripId)
+                .flatMap(existing -> {
+                    // Evaluates If-Match and sets the 412 status when it names an older version. A write that
+                    // races this check still fails on the version column; that is 412 as well with If-Match
+                    // and 409 without it.
+                    Long version = existing.getTrip().getVersion();
+                    if (exchange.checkNotModified(TripController.tripETag(tripId, version))) {
+                        logger.debug("Trip {} was modified since the client's version", tripId);
+                        return Mono.empty();
+                    }
+                    boolean conditional = !exchange.getRequest().getHeaders().getIfMatch().isEmpty();
+                    tripConverter.updateRowFromRequest(existing.getTrip(), updateRequest);
+                    return tripService.updateTrip(ownerUid, existing)
+                            .onErrorMap(OptimisticLockingFailureException.class, e -> !conditional ? e
+                                    : new TripModifiedException("Trip " + tripId + " was modified since version "
+                                            + version, e));
+                }))
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(TripController.tripETag(tripId, updated.getTrip().getVersion()))
+                        .body(toModel(updated)));
+    }
+
+    @Operation(summary = "Delete trip", description = "Delete a trip by its ID")
+    @DeleteMapping("/{tripId}")
+    public Mono<ResponseEntity<Void>> deleteTrip(@PathVariable Long tripId) {
+        logger.debug("DELETE /api/trips/{} - Deleting trip", tripId);
+
+        return CurrentUser.reactiveUid()
+                .flatMap(ownerUid -> tripService.deleteTrip(ownerUid, tripId))
+                .thenReturn(ResponseEntity.noContent().build());
+    }
+
+    @Operation(summary = "Search trips", description = "Search trips by title and notes, best match first")
+    @GetMapping("/search")
+    public Mono<List<com.tripstory.model.Trip>> searchTrips(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+
+        logger.debug("GET /api/trips/search?q={} - Searching trips", q);
+
+        return Mono.fromCallable(() -> TripController.resolvePageSize(limit))
+                .flatMap(pageSize -> CurrentUser.reactiveUid()
+                        .flatMap(ownerUid -> tripService.searchTripsByTitle(ownerUid, q, pageSize)))
+                .map(this::toModels);
+    }
+
+    @Operation(summary = "Get upcoming trips", description = "Retrieve all upcoming trips")
+    @GetMapping("/upcoming")
+    public Mono<List<com.tripstory.model.Trip>> getUpcomingTrips() {
+        logger.debug("GET /api/trips/upcoming - Fetching upcoming trips");
+        return CurrentUser.reactiveUid().flatMap(tripService::getUpcomingTrips).map(this::toModels);
+    }
+
+    @Operation(summary = "Get past trips", description = "Retrieve all past trips")
+    @GetMapping("/past")
+    public Mono<List<com.tripstory.model.Trip>> getPastTrips() {
+        logger.debug("GET /api/trips/past - Fetching past trips");
+        return CurrentUser.reactiveUid().flatMap(tripService::getPastTrips).map(this::toModels);
+    }
+
+    @Operation(summary = "Get ongoing trips", description = "Retrieve all ongoing trips")
+    @GetMapping("/ongoing")
+    public Mono<List<com.tripstory.model.Trip>> getOngoingTrips() {
+        logger.debug("GET /api/trips/ongoing - Fetching ongoing trips");
+        return CurrentUser.reactiveUid().flatMap(tripService::getOngoingTrips).map(this::toModels);
+    }
+
+    @Operation(summary = "Get trip statistics", description = "Get statistics about trips")
+    @GetMapping("/statistics")
+    public Mono<TripService.TripStatistics> getTripStatistics() {
+        logger.debug("GET /api/trips/statistics - Fetching trip statistics");
+        return CurrentUser.reactiveUid().flatMap(tripService::getTripStatistics);
+    }
+
+    @Operation(summary = "Test endpoint", description = "Test endpoint without authentication")
+    @GetMapping("/test")
+    public String testEndpoint() {
+        logger.debug("GET /api/trips/test - Test endpoint called");
+        return "Backend is working! Authentication is configured.";
+    }
+
+    private com.tripstory.model.Trip toModel(ReactiveTripService.TripDetails details) {
+        return tripConverter.toModel(details.getTrip(), details.getDestinations());
+    }
+
+    private List<com.tripstory.model.Trip> toModels(List<ReactiveTripService.TripDetails> trips) {
+        return trips.stream().map(this::toModel).toList();
+    }
+}
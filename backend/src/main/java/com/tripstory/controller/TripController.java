@@ -1,9 +1,14 @@
 package com.tripstory.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tripstory.config.CurrentUser;
+import com.tripstory.exception.TripModifiedException;
 import com.tripstory.model.CreateTripRequest;
 import com.tripstory.model.UpdateTripRequest;
 import com.tripstory.service.TripService;
 import com.tripstory.util.TripConverter;
+import com.tripstory.util.TripCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,12 +20,23 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * REST Controller for Trip management
@@ -32,59 +48,162 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/trips")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:80", "http://frontend", "http://frontend:80", "https://thetripstory.com"})
 @Tag(name = "Trips", description = "Trip management operations")
+@Profile("!reactive")
 public class TripController {
 
     private static final Logger logger = LoggerFactory.getLogger(TripController.class);
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    private static final int STREAM_FLUSH_THRESHOLD = 8192;
+
     private final TripService tripService;
     private final TripConverter tripConverter;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TripController(TripService tripService, TripConverter tripConverter) {
+    public TripController(TripService tripService, TripConverter tripConverter, ObjectMapper objectMapper) {
         this.tripService = tripService;
         this.tripConverter = tripConverter;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Get all trips", description = "Retrieve a list of all trips")
+    @Operation(summary = "Get all trips",
+               description = "Retrieve trips ordered by start date. Pass limit/cursor for keyset pagination; " +
+                             "without them the full list is streamed from the database. " +
+                             "Send the ETag of a previous response in If-None-Match to revalidate it.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved trips",
                 content = @Content(mediaType = "application/json", 
                 schema = @Schema(implementation = com.tripstory.model.Trip.class))),
+        @ApiResponse(responseCode = "304", description = "Trips not modified since the given ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit or cursor"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping
-    public ResponseEntity<List<com.tripstory.model.Trip>> getAllTrips() {
-        logger.info("GET /api/trips - Fetching all trips");
+    public ResponseEntity<StreamingResponseBody> getAllTrips(
+            @Parameter(description = "Maximum number of trips to return (1-" + MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Opaque cursor from the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Send application/x-ndjson to stream trips as newline-delimited JSON")
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
         
-        List<com.tripstory.entity.Trip> tripEntities = tripService.getAllTrips();
-        List<com.tripstory.model.Trip> trips = tripEntities.stream()
-            .map(tripConverter::toModel)
-            .collect(Collectors.toList());
-        logger.info("Successfully retrieved {} trips", trips.size());
+        String ownerUid = CurrentUser.uid();
+        boolean ndjson = accept != null && accept.contains(APPLICATION_NDJSON_VALUE);
         
-        return ResponseEntity.ok(trips);
+        // Revalidate before touching the trips themselves; the list version is a single aggregate query.
+        // checkNotModified also sets the ETag header on the response when the list did change.
+        String etag = listETag(tripService.getTripListVersion(ownerUid), limit, cursor, ndjson);
+        if (webRequest.checkNotModified(etag)) {
+            logger.debug("GET /api/trips - Trips not modified (limit={}, cursor={})", limit, cursor);
+            return null;
+        }
+        
+        if (ndjson) {
+            return streamTripsAsNdjson(ownerUid, limit, cursor);
+        }
+        
+        logger.debug("GET /api/trips - Fetching trips (limit={}, cursor={})", limit, cursor);
+        
+        if (limit == null && cursor == null) {
+            StreamingResponseBody body = out -> {
+                JsonGenerator generator = createGenerator(out);
+                generator.writeStartArray();
+                tripService.streamTrips(ownerUid, null, null, trip -> writeTrip(generator, trip));
+                generator.writeEndArray();
+                generator.flush();
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT).body(body);
+        }
+        
+        int pageSize = resolvePageSize(limit);
+        TripCursor after = cursor != null ? TripCursor.decode(cursor) : null;
+        
+        // Fetch one extra row to find out whether another page exists
+        List<com.tripstory.model.Trip> trips = tripService.getTripsPage(ownerUid, after, pageSize + 1);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (trips.size() > pageSize) {
+            trips = trips.subList(0, pageSize);
+            com.tripstory.model.Trip last = trips.get(pageSize - 1);
+            response.header(NEXT_CURSOR_HEADER, new TripCursor(last.getStartDate(), last.getId()).encode());
+        }
+        List<com.tripstory.model.Trip> page = trips;
+        logger.debug("Successfully retrieved {} trips", trips.size());
+        
+        return response.body(out -> objectMapper.writeValue(createGenerator(out), page));
     }
 
-    @Operation(summary = "Get trip by ID", description = "Retrieve a specific trip by its ID")
+    /**
+     * Stream trips as newline-delimited JSON while they are read from the database
+     */
+    private ResponseEntity<StreamingResponseBody> streamTripsAsNdjson(String ownerUid, Integer limit, String cursor) {
+        logger.debug("GET /api/trips - Streaming trips as NDJSON (limit={}, cursor={})", limit, cursor);
+        
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        TripCursor after = cursor != null ? TripCursor.decode(cursor) : null;
+        
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = createGenerator(out);
+            generator.setRootValueSeparator(null);
+            tripService.streamTrips(ownerUid, after, limit, trip -> {
+                writeTrip(generator, trip);
+                try {
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    @Operation(summary = "Get trip by ID",
+               description = "Retrieve a specific trip by its ID. Supports If-None-Match and If-Modified-Since.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Trip found",
                 content = @Content(mediaType = "application/json", 
                 schema = @Schema(implementation = com.tripstory.model.Trip.class))),
+        @ApiResponse(responseCode = "304", description = "Trip not modified"),
         @ApiResponse(responseCode = "404", description = "Trip not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/{tripId}")
     public ResponseEntity<com.tripstory.model.Trip> getTripById(
             @Parameter(description = "ID of the trip to retrieve", required = true)
-            @PathVariable Long tripId) {
+            @PathVariable Long tripId,
+            WebRequest webRequest) {
         
-        logger.info("GET /api/trips/{} - Fetching trip by ID", tripId);
+        logger.debug("GET /api/trips/{} - Fetching trip by ID", tripId);
         
-        com.tripstory.entity.Trip tripEntity = tripService.getTripById(tripId);
-        com.tripstory.model.Trip trip = tripConverter.toModel(tripEntity);
-        logger.info("Successfully retrieved trip: {}", trip.getTitle());
+        String ownerUid = CurrentUser.uid();
+        // Revalidate before converting the trip and loading its destinations.
+        // Sets the ETag and Last-Modified headers, and the 304 status when the client's copy is current
+        TripService.TripVersion version = tripService.getTripVersion(ownerUid, tripId);
+        long lastModified = version.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        if (webRequest.checkNotModified(tripETag(tripId, version.getVersion()), lastModified)) {
+            logger.debug("Trip {} not modified", tripId);
+            return null;
+        }
         
-        return ResponseEntity.ok(trip);
+        TripService.VersionedTrip versionedTrip = tripService.getTrip(ownerUid, tripId);
+        com.tripstory.model.Trip trip = versionedTrip.getTrip();
+        logger.debug("Successfully retrieved trip: {}", trip.getTitle());
+        
+        // Describe the copy being sent, in case the trip changed since it was revalidated
+        return ResponseEntity.ok()
+                .eTag(tripETag(tripId, versionedTrip.getVersion()))
+                .lastModified(trip.getUpdatedAt().toInstant())
+                .body(trip);
     }
 
     @Operation(summary = "Create a new trip", description = "Create a new trip with the provided details")
@@ -100,23 +219,26 @@ public class TripController {
             @Parameter(description = "Trip data to create", required = true)
             @Valid @RequestBody CreateTripRequest createRequest) {
         
-        logger.info("POST /api/trips - Creating new trip: {}", createRequest.getTitle());
+        logger.debug("POST /api/trips - Creating new trip: {}", createRequest.getTitle());
         
         com.tripstory.entity.Trip tripEntity = tripConverter.fromCreateRequest(createRequest);
-        com.tripstory.entity.Trip createdEntity = tripService.createTrip(tripEntity);
-        com.tripstory.model.Trip createdTrip = tripConverter.toModel(createdEntity);
-        logger.info("Successfully created trip with ID: {}", createdTrip.getId());
+        com.tripstory.model.Trip createdTrip = tripService.createTrip(CurrentUser.uid(), tripEntity).getTrip();
+        logger.debug("Successfully created trip with ID: {}", createdTrip.getId());
         
         return new ResponseEntity<>(createdTrip, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Update trip", description = "Update an existing trip with new details")
+    @Operation(summary = "Update trip",
+               description = "Update an existing trip with new details. Send the trip's ETag in If-Match " +
+                             "to apply the update only if nobody else changed the trip in the meantime.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Trip updated successfully",
                 content = @Content(mediaType = "application/json", 
                 schema = @Schema(implementation = com.tripstory.model.Trip.class))),
         @ApiResponse(responseCode = "400", description = "Bad request - invalid input"),
         @ApiResponse(responseCode = "404", description = "Trip not found"),
+        @ApiResponse(responseCode = "409", description = "Trip was modified by a concurrent update"),
+        @ApiResponse(responseCode = "412", description = "Trip was modified since the ETag in If-Match"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PutMapping("/{tripId}")
@@ -124,17 +246,41 @@ public class TripController {
             @Parameter(description = "ID of the trip to update", required = true)
             @PathVariable Long tripId,
             @Parameter(description = "Updated trip data", required = true)
-            @Valid @RequestBody UpdateTripRequest updateRequest) {
+            @Valid @RequestBody UpdateTripRequest updateRequest,
+            WebRequest webRequest) {
+        
+        logger.debug("PUT /api/trips/{} - Updating trip", tripId);
         
-        logger.info("PUT /api/trips/{} - Updating trip", tripId);
+        String ownerUid = CurrentUser.uid();
+        // Without If-Match the update applies to the current version; the version column
+        // still keeps it from overwriting a concurrent write, which is reported as 409
+        Long expectedVersion = null;
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) != null) {
+            TripService.TripVersion existing = tripService.getTripVersion(ownerUid, tripId);
+            // Evaluates If-Match and sets the 412 status when it names an older version. A write that
+            // races this check fails the version check of the update, caught below as 412 as well.
+            if (webRequest.checkNotModified(tripETag(tripId, existing.getVersion()))) {
+                logger.debug("Trip {} was modified since the client's version", tripId);
+                return null;
+            }
+            expectedVersion = existing.getVersion();
+        }
         
-        com.tripstory.entity.Trip existingEntity = tripService.getTripById(tripId);
-        tripConverter.updateEntityFromRequest(existingEntity, updateRequest);
-        com.tripstory.entity.Trip updatedEntity = tripService.updateTrip(tripId, existingEntity);
-        com.tripstory.model.Trip updatedTrip = tripConverter.toModel(updatedEntity);
-        logger.info("Successfully updated trip: {}", updatedTrip.getTitle());
+        com.tripstory.entity.Trip changes = new com.tripstory.entity.Trip();
+        tripConverter.updateEntityFromRequest(changes, updateRequest);
+        TripService.VersionedTrip updated;
+        try {
+            updated = tripService.updateTrip(ownerUid, tripId, changes, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion == null) {
+                throw e;
+            }
+            throw new TripModifiedException("Trip " + tripId + " was modified since version " + expectedVersion, e);
+        }
+        com.tripstory.model.Trip updatedTrip = updated.getTrip();
+        logger.debug("Successfully updated trip: {}", updatedTrip.getTitle());
         
-        return ResponseEntity.ok(updatedTrip);
+        return ResponseEntity.ok().eTag(tripETag(tripId, updated.getVersion())).body(updatedTrip);
     }
 
     @Operation(summary = "Delete trip", description = "Delete a trip by its ID")
@@ -148,15 +294,15 @@ public class TripController {
             @Parameter(description = "ID of the trip to delete", required = true)
             @PathVariable Long tripId) {
         
-        logger.info("DELETE /api/trips/{} - Deleting trip", tripId);
+        logger.debug("DELETE /api/trips/{} - Deleting trip", tripId);
         
-        tripService.deleteTrip(tripId);
-        logger.info("Successfully deleted trip with ID: {}", tripId);
+        tripService.deleteTrip(CurrentUser.uid(), tripId);
+        logger.debug("Successfully deleted trip with ID: {}", tripId);
         
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search trips", description = "Search trips by title")
+    @Operation(summary = "Search trips", description = "Search trips by title and notes, best match first")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Search completed successfully",
                 content = @Content(mediaType = "application/json", 
@@ -166,15 +312,14 @@ public class TripController {
     @GetMapping("/search")
     public ResponseEntity<List<com.tripstory.model.Trip>> searchTrips(
             @Parameter(description = "Search term for trip title")
-            @RequestParam String q) {
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of trips to return (1-100, default 20)")
+            @RequestParam(required = false) Integer limit) {
         
-        logger.info("GET /api/trips/search?q={} - Searching trips", q);
+        logger.debug("GET /api/trips/search?q={} - Searching trips", q);
         
-        List<com.tripstory.entity.Trip> tripEntities = tripService.searchTripsByTitle(q);
-        List<com.tripstory.model.Trip> trips = tripEntities.stream()
-            .map(tripConverter::toModel)
-            .collect(Collectors.toList());
-        logger.info("Found {} trips matching search term: {}", trips.size(), q);
+        List<com.tripstory.model.Trip> trips = tripService.searchTripsByTitle(CurrentUser.uid(), q, resolvePageSize(limit));
+        logger.debug("Found {} trips matching search term: {}", trips.size(), q);
         
         return ResponseEntity.ok(trips);
     }
@@ -182,13 +327,10 @@ public class TripController {
     @Operation(summary = "Get upcoming trips", description = "Retrieve all upcoming trips")
     @GetMapping("/upcoming")
     public ResponseEntity<List<com.tripstory.model.Trip>> getUpcomingTrips() {
-        logger.info("GET /api/trips/upcoming - Fetching upcoming trips");
+        logger.debug("GET /api/trips/upcoming - Fetching upcoming trips");
         
-        List<com.tripstory.entity.Trip> tripEntities = tripService.getUpcomingTrips();
-        List<com.tripstory.model.Trip> trips = tripEntities.stream()
-            .map(tripConverter::toModel)
-            .collect(Collectors.toList());
-        logger.info("Found {} upcoming trips", trips.size());
+        List<com.tripstory.model.Trip> trips = tripService.getUpcomingTrips(CurrentUser.uid());
+        logger.debug("Found {} upcoming trips", trips.size());
         
         return ResponseEntity.ok(trips);
     }
@@ -196,13 +338,10 @@ public class TripController {
     @Operation(summary = "Get past trips", description = "Retrieve all past trips")
     @GetMapping("/past")
     public ResponseEntity<List<com.tripstory.model.Trip>> getPastTrips() {
-        logger.info("GET /api/trips/past - Fetching past trips");
+        logger.debug("GET /api/trips/past - Fetching past trips");
         
-        List<com.tripstory.entity.Trip> tripEntities = tripService.getPastTrips();
-        List<com.tripstory.model.Trip> trips = tripEntities.stream()
-            .map(tripConverter::toModel)
-            .collect(Collectors.toList());
-        logger.info("Found {} past trips", trips.size());
+        List<com.tripstory.model.Trip> trips = tripService.getPastTrips(CurrentUser.uid());
+        logger.debug("Found {} past trips", trips.size());
         
         return ResponseEntity.ok(trips);
     }
@@ -210,13 +349,10 @@ public class TripController {
     @Operation(summary = "Get ongoing trips", description = "Retrieve all ongoing trips")
     @GetMapping("/ongoing")
     public ResponseEntity<List<com.tripstory.model.Trip>> getOngoingTrips() {
-        logger.info("GET /api/trips/ongoing - Fetching ongoing trips");
+        logger.debug("GET /api/trips/ongoing - Fetching ongoing trips");
         
-        List<com.tripstory.entity.Trip> tripEntities = tripService.getOngoingTrips();
-        List<com.tripstory.model.Trip> trips = tripEntities.stream()
-            .map(tripConverter::toModel)
-            .collect(Collectors.toList());
-        logger.info("Found {} ongoing trips", trips.size());
+        List<com.tripstory.model.Trip> trips = tripService.getOngoingTrips(CurrentUser.uid());
+        logger.debug("Found {} ongoing trips", trips.size());
         
         return ResponseEntity.ok(trips);
     }
@@ -224,10 +360,10 @@ public class TripController {
     @Operation(summary = "Get trip statistics", description = "Get statistics about trips")
     @GetMapping("/statistics")
     public ResponseEntity<TripService.TripStatistics> getTripStatistics() {
-        logger.info("GET /api/trips/statistics - Fetching trip statistics");
+        logger.debug("GET /api/trips/statistics - Fetching trip statistics");
         
-        TripService.TripStatistics stats = tripService.getTripStatistics();
-        logger.info("Trip statistics: total={}, upcoming={}, ongoing={}, past={}", 
+        TripService.TripStatistics stats = tripService.getTripStatistics(CurrentUser.uid());
+        logger.debug("Trip statistics: total={}, upcoming={}, ongoing={}, past={}", 
                    stats.getTotal(), stats.getUpcoming(), stats.getOngoing(), stats.getPast());
         
         return ResponseEntity.ok(stats);
@@ -236,7 +372,70 @@ public class TripController {
     @Operation(summary = "Test endpoint", description = "Test endpoint without authentication")
     @GetMapping("/test")
     public ResponseEntity<String> testEndpoint() {
-        logger.info("GET /api/trips/test - Test endpoint called");
+        logger.debug("GET /api/trips/test - Test endpoint called");
         return ResponseEntity.ok("Backend is working! Authentication is configured.");
     }
-}
\ No newline at end of file
+
+    static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    /**
+     * ETag of a single trip
+     * 
+     * The version changes with every edit of the trip, its photo or its destinations.
+     */
+    static String tripETag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * ETag of a trip list response
+     * 
+     * Creating or updating a trip moves the latest modification time and deleting one changes
+     * the count, so the pair identifies the state of the list. A delete can leave the latest
+     * modification time unchanged, which is why lists are not given a Last-Modified header.
+     */
+    static String listETag(TripService.TripListVersion version, Integer limit, String cursor, boolean ndjson) {
+        return "\"" + version.getCount() + "-" + versionToken(version.getLastUpdatedAt()) + "-"
+                + Integer.toHexString(Objects.hash(limit, cursor, ndjson)) + "\"";
+    }
+
+    /**
+     * Compact encoding of a modification time at the microsecond precision it is stored with
+     */
+    private static String versionToken(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return "0";
+        }
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+        return Long.toString(micros, 36);
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Write a single trip, flushing periodically so the client sees
+     * rows as soon as they are read rather than when the response completes
+     */
+    private void writeTrip(JsonGenerator generator, com.tripstory.model.Trip trip) {
+        try {
+            generator.writeObject(trip);
+            if (generator.getOutputBuffered() > STREAM_FLUSH_THRESHOLD) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.tripstory.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,14 +18,29 @@ import java.util.Objects;
  * 
  * Each destination belongs to a trip and contains location information
  * including coordinates from Mapbox integration
+ * 
+ * IDs come from a pooled sequence rather than an identity column so Hibernate
+ * can batch inserts when several destinations are saved together
+ * 
+ * The version column rejects updates based on a stale copy, for example two
+ * clients reordering the same trip at once
+ * 
+ * Destinations are kept in the second-level cache
  */
 @Entity
-@Table(name = "destinations")
+@Table(name = "destinations", indexes = {
+    @Index(name = "idx_destinations_trip_order", columnList = "trip_id, order_index")
+})
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Destination.CACHE_REGION)
 public class Destination {
 
+    public static final String CACHE_REGION = "destinations";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "destinations_seq")
+    @SequenceGenerator(name = "destinations_seq", sequenceName = "destinations_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Destination name is required")
@@ -51,6 +69,8 @@ public class Destination {
     @Column(name = "order_index")
     private Integer orderIndex;
 
+    // Not serialized: the trip serializes its destinations, which would recurse
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trip_id", nullable = false)
     private Trip trip;
@@ -63,6 +83,10 @@ public class Destination {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Default constructor
     public Destination() {}
 
@@ -174,6 +198,10 @@ public class Destination {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Business logic methods
     
     /**
@@ -0,0 +1,107 @@
+package com.tripstory.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Cached Unsplash photo for a destination
+ * 
+ * Keyed by the normalized destination name so every trip to the same place reuses
+ * one lookup. A row without an image URL records that Unsplash had no photo.
+ */
+@Entity
+@Table(name = "destination_photos")
+public class DestinationPhoto {
+
+    @Id
+    @Column(name = "destination_key", length = 255)
+    private String destinationKey;
+
+    @Column(name = "image_url", length = 500)
+    private String imageUrl;
+
+    @Column(name = "image_attribution", length = 255)
+    private String imageAttribution;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    // Default constructor
+    public DestinationPhoto() {}
+
+    public DestinationPhoto(String destinationKey, String imageUrl, String imageAttribution, LocalDateTime fetchedAt) {
+        this.destinationKey = destinationKey;
+        this.imageUrl = imageUrl;
+        this.imageAttribution = imageAttribution;
+        this.fetchedAt = fetchedAt;
+    }
+
+    // Getters and Setters
+    public String getDestinationKey() {
+        return destinationKey;
+    }
+
+    public void setDestinationKey(String destinationKey) {
+        this.destinationKey = destinationKey;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getImageAttribution() {
+        return imageAttribution;
+    }
+
+    public void setImageAttribution(String imageAttribution) {
+        this.imageAttribution = imageAttribution;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Whether Unsplash returned a photo for this destination
+     */
+    public boolean hasImage() {
+        return imageUrl != null;
+    }
+
+    // equals and hashCode
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DestinationPhoto that = (DestinationPhoto) o;
+        return Objects.equals(destinationKey, that.destinationKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(destinationKey);
+    }
+
+    // toString
+    @Override
+    public String toString() {
+        return "DestinationPhoto{" +
+                "destinationKey='" + destinationKey + '\'' +
+                ", imageUrl='" + imageUrl + '\'' +
+                ", fetchedAt=" + fetchedAt +
+                '}';
+    }
+}
@@ -0,0 +1,162 @@
+package com.tripstory.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the destinations table for the reactive stack
+ * 
+ * The id is drawn from destinations_seq before the first save; since the version
+ * is still null at that point Spring Data inserts the row rather than updating it.
+ */
+@Table("destinations")
+public class DestinationRow {
+
+    @Id
+    private Long id;
+
+    // Not serialized, matching the trip reference of the JPA entity
+    @JsonIgnore
+    @Column("trip_id")
+    private Long tripId;
+
+    private String name;
+
+    @Column("full_name")
+    private String fullName;
+
+    private String type;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private String description;
+
+    @Column("order_index")
+    private Integer orderIndex;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    // Default constructor
+    public DestinationRow() {}
+
+    /**
+     * Copy a destination from a request body into a new row of the given trip
+     */
+    public static DestinationRow from(Destination destination, Long tripId) {
+        DestinationRow row = new DestinationRow();
+        row.tripId = tripId;
+        row.name = destination.getName();
+        row.fullName = destination.getFullName();
+        row.type = destination.getType();
+        row.latitude = destination.getLatitude();
+        row.longitude = destination.getLongitude();
+        row.description = destination.getDescription();
+        row.orderIndex = destination.getOrderIndex();
+        return row;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Integer getOrderIndex() {
+        return orderIndex;
+    }
+
+    public void setOrderIndex(Integer orderIndex) {
+        this.orderIndex = orderIndex;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    // Business logic methods
+
+    /**
+     * Updates destination details while preserving the ID and audit timestamps,
+     * like {@link Destination#updateFrom(Destination)}
+     */
+    public void updateFrom(Destination other) {
+        if (other.getName() != null) {
+            this.name = other.getName();
+        }
+        if (other.getFullName() != null) {
+            this.fullName = other.getFullName();
+        }
+        if (other.getType() != null) {
+            this.type = other.getType();
+        }
+        if (other.getLatitude() != null) {
+            this.latitude = other.getLatitude();
+        }
+        if (other.getLongitude() != null) {
+            this.longitude = other.getLongitude();
+        }
+        if (other.getDescription() != null) {
+            this.description = other.getDescription();
+        }
+        if (other.getOrderIndex() != null) {
+            this.orderIndex = other.getOrderIndex();
+        }
+    }
+}
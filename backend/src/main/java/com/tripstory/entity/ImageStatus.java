@@ -0,0 +1,13 @@
+package com.tripstory.entity;
+
+/**
+ * Progress of the asynchronous Unsplash photo lookup for a trip
+ */
+public enum ImageStatus {
+    /** Lookup queued or running; imageUrl is not set yet */
+    PENDING,
+    /** imageUrl and imageAttribution are set */
+    READY,
+    /** No photo was found or the lookup failed */
+    UNAVAILABLE
+}
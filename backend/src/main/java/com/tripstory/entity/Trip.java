@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -12,6 +16,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -19,21 +24,52 @@ import java.util.Objects;
  * 
  * This entity stores basic trip information including title, dates, and notes.
  * It uses JPA auditing to automatically track creation and modification timestamps.
+ * Updates only write changed columns, so a concurrent photo enrichment is not
+ * overwritten by an unrelated edit.
+ * Each trip belongs to the Firebase user in ownerUid. Titles are unique per
+ * owner ignoring case, enforced by a unique constraint on the lowercased
+ * title_key column.
+ * Concurrent edits are detected through the version column, which also
+ * identifies the trip's representation in its ETag.
+ * Trips and their destination lists are kept in the second-level cache. Hibernate
+ * evicts a trip's cached destination list when a destination is added or removed
+ * (hibernate.cache.auto_evict_collection_cache); DestinationService evicts it after
+ * a reorder. Every destination change bumps the trip with TripRepository#touch, a
+ * bulk update after which Hibernate evicts the cached trips.
  */
 @Entity
-@Table(name = "trips")
+@Table(name = "trips", indexes = {
+    @Index(name = "idx_trips_owner_start_date", columnList = "owner_uid, start_date, id"),
+    @Index(name = "idx_trips_owner_end_date", columnList = "owner_uid, end_date, start_date")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = Trip.TITLE_KEY_CONSTRAINT, columnNames = {"owner_uid", "title_key"})
+})
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Trip.CACHE_REGION)
 public class Trip {
 
+    public static final String TITLE_KEY_CONSTRAINT = "uk_trips_owner_title_key";
+    public static final String CACHE_REGION = "trips";
+    public static final String DESTINATIONS_CACHE_REGION = "trip-destinations";
+    public static final String DESTINATIONS_ROLE = Trip.class.getName() + ".destinations";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "owner_uid", length = 128, nullable = false, updatable = false)
+    private String ownerUid;
+
     @NotBlank(message = "Trip title is required")
     @Size(max = 255, message = "Trip title must not exceed 255 characters")
     @Column(nullable = false)
     private String title;
 
+    @Column(name = "title_key", length = 255)
+    private String titleKey;
+
     @NotNull(message = "Start date is required")
     @Column(name = "start_date", nullable = false)
     private LocalDate startDate;
@@ -52,8 +88,14 @@ public class Trip {
     @Column(name = "image_attribution", length = 255)
     private String imageAttribution;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "image_status", length = 20)
+    private ImageStatus imageStatus;
+
     @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @OrderBy("orderIndex ASC")
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Trip.DESTINATIONS_CACHE_REGION)
     private List<Destination> destinations = new ArrayList<>();
 
     @CreatedDate
@@ -64,12 +106,16 @@ public class Trip {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Default constructor
     public Trip() {}
 
     // Constructor for creating new trips
     public Trip(String title, LocalDate startDate, LocalDate endDate, String notes) {
-        this.title = title;
+        setTitle(title);
         this.startDate = startDate;
         this.endDate = endDate;
         this.notes = notes;
@@ -85,12 +131,25 @@ public class Trip {
         this.id = id;
     }
 
+    public String getOwnerUid() {
+        return ownerUid;
+    }
+
+    public void setOwnerUid(String ownerUid) {
+        this.ownerUid = ownerUid;
+    }
+
     public String getTitle() {
         return title;
     }
 
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = title != null ? title.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public String getTitleKey() {
+        return titleKey;
     }
 
     public LocalDate getStartDate() {
@@ -133,6 +192,14 @@ public class Trip {
         this.imageAttribution = imageAttribution;
     }
 
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -149,6 +216,10 @@ public class Trip {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public List<Destination> getDestinations() {
         return destinations;
     }
@@ -181,7 +252,7 @@ public class Trip {
      */
     public void updateFrom(Trip other) {
         if (other.getTitle() != null) {
-            this.title = other.getTitle();
+            setTitle(other.getTitle());
         }
         if (other.getStartDate() != null) {
             this.startDate = other.getStartDate();
@@ -228,19 +299,23 @@ public class Trip {
      * Get a summary of destinations for display purposes
      */
     public String getDestinationSummary() {
-        if (destinations.isEmpty()) {
+        return summarizeDestinations(destinations.stream().map(Destination::getName).toList());
+    }
+
+    /**
+     * Summarize destination names in itinerary order, e.g. "Paris + 3 more"
+     */
+    public static String summarizeDestinations(List<String> names) {
+        if (names.isEmpty()) {
             return "No destinations";
         }
-        if (destinations.size() == 1) {
-            return destinations.get(0).getName();
+        if (names.size() == 1) {
+            return names.get(0);
         }
-        if (destinations.size() <= 3) {
-            return destinations.stream()
-                    .map(Destination::getName)
-                    .reduce((a, b) -> a + ", " + b)
-                    .orElse("No destinations");
+        if (names.size() <= 3) {
+            return String.join(", ", names);
         }
-        return destinations.get(0).getName() + " + " + (destinations.size() - 1) + " more";
+        return names.get(0) + " + " + (names.size() - 1) + " more";
     }
 
     // equals and hashCode
@@ -0,0 +1,171 @@
+package com.tripstory.entity;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * R2DBC mapping of the trips table for the reactive stack
+ * 
+ * Mirrors the columns of {@link Trip} without its destinations, which R2DBC does
+ * not load as an association; the reactive services fetch them separately.
+ * The version column gives the same optimistic locking as on the JPA entity.
+ */
+@Table("trips")
+public class TripRow {
+
+    @Id
+    private Long id;
+
+    @Column("owner_uid")
+    private String ownerUid;
+
+    private String title;
+
+    @Column("title_key")
+    private String titleKey;
+
+    @Column("start_date")
+    private LocalDate startDate;
+
+    @Column("end_date")
+    private LocalDate endDate;
+
+    private String notes;
+
+    @Column("image_url")
+    private String imageUrl;
+
+    @Column("image_attribution")
+    private String imageAttribution;
+
+    @Column("image_status")
+    private ImageStatus imageStatus;
+
+    @CreatedDate
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    // Default constructor
+    public TripRow() {}
+
+    /**
+     * Copy the writable fields of a trip built from a create request
+     */
+    public static TripRow from(Trip trip) {
+        TripRow row = new TripRow();
+        row.setOwnerUid(trip.getOwnerUid());
+        row.setTitle(trip.getTitle());
+        row.startDate = trip.getStartDate();
+        row.endDate = trip.getEndDate();
+        row.notes = trip.getNotes();
+        row.imageUrl = trip.getImageUrl();
+        row.imageAttribution = trip.getImageAttribution();
+        row.imageStatus = trip.getImageStatus();
+        return row;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOwnerUid() {
+        return ownerUid;
+    }
+
+    public void setOwnerUid(String ownerUid) {
+        this.ownerUid = ownerUid;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        this.titleKey = title != null ? title.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public String getTitleKey() {
+        return titleKey;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getImageAttribution() {
+        return imageAttribution;
+    }
+
+    public void setImageAttribution(String imageAttribution) {
+        this.imageAttribution = imageAttribution;
+    }
+
+    public ImageStatus getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(ImageStatus imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
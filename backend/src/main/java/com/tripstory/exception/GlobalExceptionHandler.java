@@ -6,8 +6,11 @@ import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +24,7 @@ import org.springframework.web.context.request.WebRequest;
  * ensuring consistent error response format and proper HTTP status codes.
  */
 @RestControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
@@ -44,6 +48,63 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handle conditional updates whose If-Match names a version that is no longer current
+     */
+    @ExceptionHandler(TripModifiedException.class)
+    public ResponseEntity<ErrorResponse> handleTripModifiedException(
+            TripModifiedException ex, WebRequest request) {
+        
+        logger.warn("Conditional update failed: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "The resource was modified since the version in If-Match",
+            "Fetch the latest version and apply the change again",
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handle writes that lost a race with a concurrent change of the same row
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        
+        logger.warn("Concurrent modification: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            "The resource was modified by another request",
+            "Fetch the latest version and apply the change again",
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle requests that reach a user-scoped endpoint without an authenticated user
+     */
+    @ExceptionHandler(AuthenticationCredentialsNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationCredentialsNotFoundException(
+            AuthenticationCredentialsNotFoundException ex, WebRequest request) {
+        
+        logger.warn("Unauthenticated request: {}", ex.getMessage());
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Authentication is required",
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+    }
+
     /**
      * Handle IllegalArgumentException (validation errors)
      */
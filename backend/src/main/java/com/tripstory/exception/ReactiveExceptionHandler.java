@@ -0,0 +1,128 @@
+package com.tripstory.exception;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.tripstory.exception.GlobalExceptionHandler.ErrorResponse;
+
+/**
+ * Exception handler for the reactive stack
+ *
+ * Maps exceptions to the same statuses and {@link ErrorResponse} bodies as
+ * {@link GlobalExceptionHandler}.
+ */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    @ExceptionHandler(TripNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleTripNotFoundException(
+            TripNotFoundException ex, ServerWebExchange exchange) {
+
+        logger.warn("Trip not found: {}", ex.getMessage());
+        return error(HttpStatus.NOT_FOUND, ex.getMessage(), "The requested trip could not be found", exchange);
+    }
+
+    @ExceptionHandler(TripModifiedException.class)
+    public ResponseEntity<ErrorResponse> handleTripModifiedException(
+            TripModifiedException ex, ServerWebExchange exchange) {
+
+        logger.warn("Conditional update failed: {}", ex.getMessage());
+        return error(HttpStatus.PRECONDITION_FAILED, "The resource was modified since the version in If-Match",
+                "Fetch the latest version and apply the change again", exchange);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, ServerWebExchange exchange) {
+
+        logger.warn("Concurrent modification: {}", ex.getMessage());
+        return error(HttpStatus.CONFLICT, "The resource was modified by another request",
+                "Fetch the latest version and apply the change again", exchange);
+    }
+
+    @ExceptionHandler(AuthenticationCredentialsNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationCredentialsNotFoundException(
+            AuthenticationCredentialsNotFoundException ex, ServerWebExchange exchange) {
+
+        logger.warn("Unauthenticated request: {}", ex.getMessage());
+        return error(HttpStatus.UNAUTHORIZED, ex.getMessage(), "Authentication is required", exchange);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
+            IllegalArgumentException ex, ServerWebExchange exchange) {
+
+        logger.warn("Validation error: {}", ex.getMessage());
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage(), "Invalid request data provided", exchange);
+    }
+
+    /**
+     * Handle WebExchangeBindException (Bean validation errors)
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(
+            WebExchangeBindException ex, ServerWebExchange exchange) {
+
+        logger.warn("Bean validation error: {}", ex.getMessage());
+
+        Map<String, String> validationErrors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            validationErrors.put(fieldName, errorMessage);
+        });
+
+        return error(HttpStatus.BAD_REQUEST, "Validation failed for fields: " + validationErrors.keySet(),
+                validationErrors.toString(), exchange);
+    }
+
+    /**
+     * Keep the status of errors WebFlux raises itself, such as missing parameters or unreadable bodies
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(
+            ResponseStatusException ex, ServerWebExchange exchange) {
+
+        logger.warn("Request rejected: {}", ex.getMessage());
+        return error(HttpStatus.valueOf(ex.getStatusCode().value()), ex.getReason(), "Invalid request", exchange);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGlobalException(
+            Exception ex, ServerWebExchange exchange) {
+
+        logger.error("Unexpected error occurred: ", ex);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred",
+                "Please try again later or contact support if the problem persists", exchange);
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String message, String details,
+                                                       ServerWebExchange exchange) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            message,
+            details,
+            LocalDateTime.now(),
+            exchange.getRequest().getPath().value()
+        );
+
+        return new ResponseEntity<>(errorResponse, status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tripstory.exception;
+
+/**
+ * Exception thrown when a conditional update names a version of the trip that is no longer current
+ */
+public class TripModifiedException extends RuntimeException {
+    
+    public TripModifiedException(String message) {
+        super(message);
+    }
+    
+    public TripModifiedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tripstory.repository;
+
+import com.tripstory.entity.DestinationPhoto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for cached destination photos
+ * 
+ * Keyed by normalized destination name
+ */
+@Repository
+public interface DestinationPhotoRepository extends JpaRepository<DestinationPhoto, String> {
+}
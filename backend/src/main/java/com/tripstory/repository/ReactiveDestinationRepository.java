@@ -0,0 +1,55 @@
+package com.tripstory.repository;
+
+import com.tripstory.entity.DestinationRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * R2DBC repository for destinations on the reactive stack
+ * 
+ * Mirrors {@link DestinationRepository}, plus the batch lookup that stands in for
+ * the JPA entity's batch-fetched destinations association.
+ */
+@Repository
+public interface ReactiveDestinationRepository extends R2dbcRepository<DestinationRow, Long> {
+
+    /**
+     * Find all destinations for a trip, ordered by orderIndex
+     */
+    Flux<DestinationRow> findByTripIdOrderByOrderIndexAsc(Long tripId);
+
+    /**
+     * Find the destinations of several trips in one query, grouped by trip in itinerary order
+     */
+    @Query("SELECT * FROM destinations WHERE trip_id IN (:tripIds) ORDER BY trip_id, order_index")
+    Flux<DestinationRow> findByTripIdIn(@Param("tripIds") Collection<Long> tripIds);
+
+    /**
+     * Find the maximum order index for a trip's destinations
+     */
+    @Query("SELECT COALESCE(MAX(order_index), -1) FROM destinations WHERE trip_id = :tripId")
+    Mono<Integer> findMaxOrderIndexByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Draw the id for a new destination from destinations_seq
+     * 
+     * Each call takes one value; the JPA entity's pooled generator reserves the block
+     * below each value it takes, so ids from both stacks never collide.
+     */
+    @Query("SELECT nextval('destinations_seq')")
+    Mono<Long> nextId();
+
+    /**
+     * Delete all destinations for a trip
+     */
+    @Modifying
+    @Query("DELETE FROM destinations WHERE trip_id = :tripId")
+    Mono<Integer> deleteByTripId(@Param("tripId") Long tripId);
+}
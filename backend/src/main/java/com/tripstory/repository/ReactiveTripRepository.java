@@ -0,0 +1,128 @@
+package com.tripstory.repository;
+
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.TripRow;
+import com.tripstory.service.TripService;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC repository for trips on the reactive stack
+ * 
+ * Mirrors the queries of {@link TripRepository} in SQL. Queries are scoped to the
+ * owning user's Firebase uid and served by the same (owner_uid, start_date) and
+ * (owner_uid, end_date) indexes. Dates are passed in rather than using CURRENT_DATE,
+ * as in {@link TripRepository#countTripsByStatus}. Aggregates are read straight into
+ * the service DTOs through their constructors.
+ */
+@Repository
+public interface ReactiveTripRepository extends R2dbcRepository<TripRow, Long> {
+
+    /**
+     * Find a trip by id if it belongs to the given user
+     */
+    Mono<TripRow> findByIdAndOwnerUid(Long id, String ownerUid);
+
+    /**
+     * First page of trips in keyset order (start date descending, id as tie-breaker)
+     */
+    @Query("SELECT * FROM trips WHERE owner_uid = :ownerUid ORDER BY start_date DESC, id DESC LIMIT :limit")
+    Flux<TripRow> findFirstPage(@Param("ownerUid") String ownerUid, @Param("limit") int limit);
+
+    /**
+     * Next page of trips strictly after the (startDate, id) keyset cursor
+     */
+    @Query("SELECT * FROM trips WHERE owner_uid = :ownerUid " +
+           "AND (start_date < :startDate OR (start_date = :startDate AND id < :id)) " +
+           "ORDER BY start_date DESC, id DESC LIMIT :limit")
+    Flux<TripRow> findPageAfter(@Param("ownerUid") String ownerUid,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("id") Long id,
+                                @Param("limit") int limit);
+
+    /**
+     * Ranked title and notes search, the same query as {@link TripRepository#searchRankedIds}
+     * 
+     * Patterns must be built from a term normalized with {@link com.tripstory.util.SearchText},
+     * with LIKE wildcards escaped by a backslash. On PostgreSQL the WHERE expression
+     * matches the pg_trgm GIN index.
+     */
+    @Query("SELECT * FROM trips " +
+           "WHERE owner_uid = :ownerUid " +
+           "AND trip_search_text(title || ' ' || coalesce(notes, '')) LIKE :contains ESCAPE '\\' " +
+           "ORDER BY CASE " +
+           "WHEN trip_search_text(title) LIKE :prefix ESCAPE '\\' THEN 0 " +
+           "WHEN trip_search_text(title) LIKE :wordPrefix ESCAPE '\\' THEN 1 " +
+           "WHEN trip_search_text(title) LIKE :contains ESCAPE '\\' THEN 2 " +
+           "ELSE 3 END, id DESC " +
+           "LIMIT :limit")
+    Flux<TripRow> searchRanked(@Param("ownerUid") String ownerUid,
+                               @Param("contains") String contains,
+                               @Param("prefix") String prefix,
+                               @Param("wordPrefix") String wordPrefix,
+                               @Param("limit") int limit);
+
+    /**
+     * Find upcoming trips (start date after today)
+     */
+    @Query("SELECT * FROM trips WHERE owner_uid = :ownerUid AND start_date > :today ORDER BY start_date ASC")
+    Flux<TripRow> findUpcomingTrips(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Find past trips (end date before today)
+     */
+    @Query("SELECT * FROM trips WHERE owner_uid = :ownerUid AND end_date < :today ORDER BY start_date DESC")
+    Flux<TripRow> findPastTrips(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Find ongoing trips (today is between start and end date)
+     */
+    @Query("SELECT * FROM trips WHERE owner_uid = :ownerUid AND :today BETWEEN start_date AND end_date")
+    Flux<TripRow> findOngoingTrips(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Count all trips and every date bucket in a single scan
+     */
+    @Query("SELECT COUNT(*) AS total, " +
+           "COALESCE(SUM(CASE WHEN start_date > :today THEN 1 ELSE 0 END), 0) AS upcoming, " +
+           "COALESCE(SUM(CASE WHEN :today BETWEEN start_date AND end_date THEN 1 ELSE 0 END), 0) AS ongoing, " +
+           "COALESCE(SUM(CASE WHEN end_date < :today THEN 1 ELSE 0 END), 0) AS past " +
+           "FROM trips WHERE owner_uid = :ownerUid")
+    Mono<TripService.TripStatistics> countTripsByStatus(@Param("ownerUid") String ownerUid,
+                                                        @Param("today") LocalDate today);
+
+    /**
+     * Count and latest modification time of the user's trips
+     */
+    @Query("SELECT COUNT(*) AS count, MAX(updated_at) AS last_updated_at FROM trips WHERE owner_uid = :ownerUid")
+    Mono<TripService.TripListVersion> findListVersion(@Param("ownerUid") String ownerUid);
+
+    /**
+     * Bump a trip's version and modification time without loading it
+     * Used when one of its destinations changes, since the trip representation summarizes them
+     */
+    @Modifying
+    @Query("UPDATE trips SET updated_at = :updatedAt, version = version + 1 WHERE id = :id")
+    Mono<Integer> touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Patch the image fields of a trip without loading it
+     * Used by the photo enrichment once the trip was committed
+     */
+    @Modifying
+    @Query("UPDATE trips SET image_url = :imageUrl, image_attribution = :imageAttribution, " +
+           "image_status = :imageStatus, updated_at = :updatedAt, version = version + 1 WHERE id = :id")
+    Mono<Integer> updateImage(@Param("id") Long id,
+                              @Param("imageUrl") String imageUrl,
+                              @Param("imageAttribution") String imageAttribution,
+                              @Param("imageStatus") ImageStatus imageStatus,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+}
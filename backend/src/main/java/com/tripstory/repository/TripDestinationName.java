@@ -0,0 +1,19 @@
+package com.tripstory.repository;
+
+/**
+ * Name of one destination of a trip, selected by constructor expression
+ * to build the destination summary of a {@link TripView}
+ */
+public class TripDestinationName {
+
+    private final Long tripId;
+    private final String name;
+
+    public TripDestinationName(Long tripId, String name) {
+        this.tripId = tripId;
+        this.name = name;
+    }
+
+    public Long getTripId() { return tripId; }
+    public String getName() { return name; }
+}
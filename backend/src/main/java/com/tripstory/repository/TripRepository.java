@@ -1,81 +1,240 @@
 package com.tripstory.repository;
 
+import com.tripstory.entity.ImageStatus;
 import com.tripstory.entity.Trip;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Trip entity
  * 
  * Provides CRUD operations and custom query methods for managing trips in the database.
  * Uses Spring Data JPA for automatic implementation generation.
+ * Queries are scoped to the owning user's Firebase uid and served by the
+ * (owner_uid, start_date) and (owner_uid, end_date) indexes.
+ * Read-only list queries select {@link TripView}s rather than entities.
+ * Single-trip updates that do not load the trip are JPQL bulk updates, so
+ * Hibernate itself evicts the cached trips and invalidates cached query results
+ * over the trips table.
  */
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
     /**
-     * Find all trips ordered by start date descending (most recent first)
+     * Select clause of the {@link TripView} projection queries
      */
-    @Query("SELECT t FROM Trip t ORDER BY t.startDate DESC")
-    List<Trip> findAllOrderByStartDateDesc();
+    String TRIP_VIEW = "SELECT new com.tripstory.repository.TripView(t.id, t.title, t.startDate, t.endDate, " +
+                       "t.notes, t.imageUrl, t.imageAttribution, t.imageStatus, t.createdAt, t.updatedAt) FROM Trip t ";
 
     /**
-     * Find trips by title containing the search term (case-insensitive)
+     * Query cache region of the upcoming/past/ongoing queries
+     * Hibernate drops its entries whenever the trips table changes
      */
-    @Query("SELECT t FROM Trip t WHERE LOWER(t.title) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Trip> findByTitleContainingIgnoreCase(@Param("searchTerm") String searchTerm);
+    String DATE_BUCKETS_CACHE_REGION = "trip-date-buckets";
 
     /**
-     * Find trips that start within a date range
+     * Find all trips ordered by start date descending as views
      */
-    @Query("SELECT t FROM Trip t WHERE t.startDate BETWEEN :startDate AND :endDate")
-    List<Trip> findTripsStartingBetween(@Param("startDate") LocalDate startDate, 
-                                      @Param("endDate") LocalDate endDate);
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid ORDER BY t.startDate DESC")
+    List<TripView> findAllViewsOrderByStartDateDesc(@Param("ownerUid") String ownerUid);
 
     /**
-     * Find upcoming trips (start date is in the future)
+     * First page of trips in keyset order (start date descending, id as tie-breaker)
      */
-    @Query("SELECT t FROM Trip t WHERE t.startDate > CURRENT_DATE ORDER BY t.startDate ASC")
-    List<Trip> findUpcomingTrips();
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid ORDER BY t.startDate DESC, t.id DESC")
+    List<TripView> findFirstPage(@Param("ownerUid") String ownerUid, Pageable pageable);
 
     /**
-     * Find past trips (end date is in the past)
+     * Next page of trips strictly after the (startDate, id) keyset cursor
      */
-    @Query("SELECT t FROM Trip t WHERE t.endDate < CURRENT_DATE ORDER BY t.startDate DESC")
-    List<Trip> findPastTrips();
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid " +
+           "AND (t.startDate < :startDate OR (t.startDate = :startDate AND t.id < :id)) " +
+           "ORDER BY t.startDate DESC, t.id DESC")
+    List<TripView> findPageAfter(@Param("ownerUid") String ownerUid,
+                             @Param("startDate") LocalDate startDate,
+                             @Param("id") Long id,
+                             Pageable pageable);
 
     /**
-     * Find current/ongoing trips (current date is between start and end date)
+     * Stream all trips in keyset order from a JDBC cursor
+     * Must be consumed inside a transaction and closed by the caller
      */
-    @Query("SELECT t FROM Trip t WHERE CURRENT_DATE BETWEEN t.startDate AND t.endDate")
-    List<Trip> findOngoingTrips();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid ORDER BY t.startDate DESC, t.id DESC")
+    Stream<TripView> streamAllOrderByStartDateDesc(@Param("ownerUid") String ownerUid);
 
     /**
-     * Check if a trip exists with the given title (case-insensitive)
+     * Stream trips strictly after the (startDate, id) keyset cursor from a JDBC cursor
+     * Must be consumed inside a transaction and closed by the caller
      */
-    @Query("SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM Trip t WHERE LOWER(t.title) = LOWER(:title)")
-    boolean existsByTitleIgnoreCase(@Param("title") String title);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid " +
+           "AND (t.startDate < :startDate OR (t.startDate = :startDate AND t.id < :id)) " +
+           "ORDER BY t.startDate DESC, t.id DESC")
+    Stream<TripView> streamAfter(@Param("ownerUid") String ownerUid,
+                             @Param("startDate") LocalDate startDate,
+                             @Param("id") Long id);
 
     /**
-     * Find the most recently created trip
+     * Ranked title and notes search for PostgreSQL, returning the ids of the matches
+     * 
+     * The WHERE expression matches the pg_trgm GIN index idx_trips_search_trgm, so
+     * substring matches do not scan the table. Title and notes are compared in the
+     * normal form of trip_search_text, so patterns must be built from a term
+     * normalized with {@link com.tripstory.util.SearchText}, with LIKE wildcards
+     * escaped by a backslash.
      */
-    Optional<Trip> findTopByOrderByCreatedAtDesc();
+    @Query(value = "SELECT t.id FROM trips t " +
+                   "WHERE t.owner_uid = :ownerUid " +
+                   "AND trip_search_text(t.title || ' ' || coalesce(t.notes, '')) LIKE :contains ESCAPE '\\' " +
+                   "ORDER BY CASE " +
+                   "WHEN trip_search_text(t.title) LIKE :prefix ESCAPE '\\' THEN 0 " +
+                   "WHEN trip_search_text(t.title) LIKE :wordPrefix ESCAPE '\\' THEN 1 " +
+                   "WHEN trip_search_text(t.title) LIKE :contains ESCAPE '\\' THEN 2 " +
+                   "ELSE 3 END, t.id DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Long> searchRankedIds(@Param("ownerUid") String ownerUid,
+                               @Param("contains") String contains,
+                               @Param("prefix") String prefix,
+                               @Param("wordPrefix") String wordPrefix,
+                               @Param("limit") int limit);
 
     /**
-     * Count trips by status (upcoming, ongoing, past)
+     * Load the searchable text of every trip, used to build the in-memory search index
+     * This is the one query that spans all owners; the index keeps them apart
      */
-    @Query("SELECT COUNT(t) FROM Trip t WHERE t.startDate > CURRENT_DATE")
-    long countUpcomingTrips();
+    @Query("SELECT t.id AS id, t.ownerUid AS ownerUid, t.title AS title, t.notes AS notes FROM Trip t")
+    List<TripSearchDocument> findAllSearchDocuments();
 
-    @Query("SELECT COUNT(t) FROM Trip t WHERE CURRENT_DATE BETWEEN t.startDate AND t.endDate")
-    long countOngoingTrips();
+    /**
+     * Find trips by id as views
+     */
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid AND t.id IN :ids")
+    List<TripView> findViewsByIdIn(@Param("ownerUid") String ownerUid, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Destination names of the given trips, in itinerary order within each trip
+     */
+    @Query("SELECT new com.tripstory.repository.TripDestinationName(d.trip.id, d.name) FROM Destination d " +
+           "WHERE d.trip.id IN :tripIds ORDER BY d.orderIndex ASC")
+    List<TripDestinationName> findDestinationNames(@Param("tripIds") Collection<Long> tripIds);
+
+    /**
+     * Find upcoming trips as views, from the query cache when possible
+     * The reference date is passed in so a cached result never outlives its day
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = DATE_BUCKETS_CACHE_REGION)
+    })
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid AND t.startDate > :today ORDER BY t.startDate ASC")
+    List<TripView> findUpcomingTripViews(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Find past trips as views, from the query cache when possible
+     * The reference date is passed in so a cached result never outlives its day
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = DATE_BUCKETS_CACHE_REGION)
+    })
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid AND t.endDate < :today ORDER BY t.startDate DESC")
+    List<TripView> findPastTripViews(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Find ongoing trips as views, from the query cache when possible
+     * The reference date is passed in so a cached result never outlives its day
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = DATE_BUCKETS_CACHE_REGION)
+    })
+    @Query(TRIP_VIEW + "WHERE t.ownerUid = :ownerUid AND :today BETWEEN t.startDate AND t.endDate")
+    List<TripView> findOngoingTripViews(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
+
+    /**
+     * Count all trips and every date bucket in a single scan
+     * 
+     * The reference date is passed in rather than using CURRENT_DATE so callers
+     * can cache the result per calendar day.
+     */
+    @Query("SELECT COUNT(t) AS total, " +
+           "COALESCE(SUM(CASE WHEN t.startDate > :today THEN 1 ELSE 0 END), 0) AS upcoming, " +
+           "COALESCE(SUM(CASE WHEN :today BETWEEN t.startDate AND t.endDate THEN 1 ELSE 0 END), 0) AS ongoing, " +
+           "COALESCE(SUM(CASE WHEN t.endDate < :today THEN 1 ELSE 0 END), 0) AS past " +
+           "FROM Trip t WHERE t.ownerUid = :ownerUid")
+    TripStatusCounts countTripsByStatus(@Param("ownerUid") String ownerUid, @Param("today") LocalDate today);
 
-    @Query("SELECT COUNT(t) FROM Trip t WHERE t.endDate < CURRENT_DATE")
-    long countPastTrips();
-}
\ No newline at end of file
+    /**
+     * Count and latest modification time of the user's trips
+     */
+    @Query("SELECT COUNT(t) AS count, MAX(t.updatedAt) AS lastUpdatedAt FROM Trip t WHERE t.ownerUid = :ownerUid")
+    TripListVersion findListVersion(@Param("ownerUid") String ownerUid);
+
+    /**
+     * Bump a trip's version and modification time without loading it
+     * Used when one of its destinations changes, since the trip representation summarizes them
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trip t SET t.updatedAt = :updatedAt, t.version = t.version + 1 WHERE t.id = :id")
+    int touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Patch the image fields of a trip without loading it
+     * Used by the asynchronous photo enrichment after the trip was committed
+     * The version is bumped because the trip's representation changes
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trip t SET t.imageUrl = :imageUrl, t.imageAttribution = :imageAttribution, " +
+           "t.imageStatus = :imageStatus, t.updatedAt = :updatedAt, t.version = t.version + 1 WHERE t.id = :id")
+    int updateImage(@Param("id") Long id,
+                    @Param("imageUrl") String imageUrl,
+                    @Param("imageAttribution") String imageAttribution,
+                    @Param("imageStatus") ImageStatus imageStatus,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Projection for the aggregate status counts
+     */
+    interface TripStatusCounts {
+        long getTotal();
+        long getUpcoming();
+        long getOngoing();
+        long getPast();
+    }
+
+    /**
+     * Projection for the version of a user's trip list
+     */
+    interface TripListVersion {
+        long getCount();
+        LocalDateTime getLastUpdatedAt();
+    }
+
+    /**
+     * Projection for the searchable text of a trip
+     */
+    interface TripSearchDocument {
+        Long getId();
+        String getOwnerUid();
+        String getTitle();
+        String getNotes();
+    }
+}
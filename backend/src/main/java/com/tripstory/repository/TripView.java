@@ -0,0 +1,54 @@
+package com.tripstory.repository;
+
+import com.tripstory.entity.ImageStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of the trip columns an API response needs
+ *
+ * Selected by constructor expression in {@link TripRepository}, so reads that only
+ * return trips never hydrate, snapshot or dirty-check {@link com.tripstory.entity.Trip}
+ * entities. Destination names are read separately with
+ * {@link TripRepository#findDestinationNames}.
+ */
+public class TripView {
+
+    private final Long id;
+    private final String title;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final String notes;
+    private final String imageUrl;
+    private final String imageAttribution;
+    private final ImageStatus imageStatus;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public TripView(Long id, String title, LocalDate startDate, LocalDate endDate, String notes,
+                    String imageUrl, String imageAttribution, ImageStatus imageStatus,
+                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.notes = notes;
+        this.imageUrl = imageUrl;
+        this.imageAttribution = imageAttribution;
+        this.imageStatus = imageStatus;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public String getNotes() { return notes; }
+    public String getImageUrl() { return imageUrl; }
+    public String getImageAttribution() { return imageAttribution; }
+    public ImageStatus getImageStatus() { return imageStatus; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
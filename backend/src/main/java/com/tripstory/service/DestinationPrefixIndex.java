@@ -0,0 +1,156 @@
+package com.tripstory.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory prefix index of the destination suggestions seen from Mapbox
+ *
+ * Suggestions are stored in a sorted map under their normalized short name and
+ * full name, so a prefix lookup is a range scan of the map. This lets
+ * "Par" be answered from results previously fetched for "Paris" and doubles as
+ * the source of suggestions when Mapbox is unavailable.
+ *
+ * Matches are ranked by a relevance score accumulated from their positions in
+ * Mapbox results, so local answers follow Mapbox's ordering rather than the
+ * alphabetical order of the map. When the index is full, the suggestion least
+ * recently seen from Mapbox or served from the index is evicted. All operations
+ * are synchronized, like {@link com.tripstory.util.ExpiringLruCache}.
+ */
+class DestinationPrefixIndex {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final char MAX_CHAR = '\uffff';
+    // Prefixes matching more terms than this are too broad to rank on every keystroke
+    private static final int MAX_CANDIDATES = 1000;
+
+    private static final Comparator<Entry> BY_SCORE =
+            Comparator.comparingDouble((Entry entry) -> entry.score).reversed()
+                    .thenComparing(entry -> entry.identity);
+
+    private final int maxEntries;
+    private final TreeMap<String, Entry> terms = new TreeMap<>();
+    // Access-ordered, so the eldest suggestion is the least recently seen or served
+    private final LinkedHashMap<String, Entry> suggestions = new LinkedHashMap<>(16, 0.75f, true);
+
+    DestinationPrefixIndex(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Index suggestions by short name and full name
+     *
+     * @param ranked Suggestions in Mapbox's relevance order; earlier ones score higher
+     */
+    synchronized void addAll(List<MapboxService.DestinationSuggestion> ranked) {
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            add(ranked.get(rank), 1.0 / (rank + 1));
+        }
+    }
+
+    /**
+     * Find the {@code limit} highest-scoring distinct suggestions whose name or full name starts with the prefix
+     *
+     * Returns no suggestions for a prefix with more than {@value #MAX_CANDIDATES} matching
+     * terms, since only some of them could be ranked.
+     *
+     * @param normalizedPrefix Query already normalized with {@link MapboxService#normalizeQuery(String)}
+     */
+    synchronized List<MapboxService.DestinationSuggestion> search(String normalizedPrefix, int limit) {
+        if (normalizedPrefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Map<String, Entry> matches = new HashMap<>();
+        int scanned = 0;
+        for (Entry entry : terms.subMap(normalizedPrefix, true, normalizedPrefix + MAX_CHAR, false).values()) {
+            if (++scanned > MAX_CANDIDATES) {
+                return List.of();
+            }
+            matches.putIfAbsent(entry.identity, entry);
+        }
+
+        List<Entry> ranked = new ArrayList<>(matches.values());
+        ranked.sort(BY_SCORE);
+        List<MapboxService.DestinationSuggestion> top = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Entry entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            suggestions.get(entry.identity); // mark as recently used
+            top.add(entry.suggestion);
+        }
+        return List.copyOf(top);
+    }
+
+    /**
+     * Number of distinct suggestions in the index
+     */
+    synchronized int size() {
+        return suggestions.size();
+    }
+
+    private void add(MapboxService.DestinationSuggestion suggestion, double relevance) {
+        String identity = identity(suggestion);
+        if (identity == null || identity.isBlank()) {
+            return;
+        }
+
+        Entry entry = suggestions.get(identity);
+        if (entry == null) {
+            entry = new Entry(identity, suggestion);
+            suggestions.put(identity, entry);
+            addTerm(suggestion.getName(), entry);
+            addTerm(suggestion.getFullName(), entry);
+            evictEldestIfFull();
+        }
+        entry.score += relevance;
+    }
+
+    private void addTerm(String term, Entry entry) {
+        if (term == null || term.isBlank()) {
+            return;
+        }
+        String key = termKey(term, entry.identity);
+        terms.put(key, entry);
+        entry.termKeys.add(key);
+    }
+
+    private void evictEldestIfFull() {
+        Iterator<Entry> eldest = suggestions.values().iterator();
+        while (suggestions.size() > maxEntries && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            evicted.termKeys.forEach(terms::remove);
+        }
+    }
+
+    private static String termKey(String term, String identity) {
+        return MapboxService.normalizeQuery(term) + KEY_SEPARATOR + identity;
+    }
+
+    private static String identity(MapboxService.DestinationSuggestion suggestion) {
+        return suggestion.getFullName() != null ? suggestion.getFullName() : suggestion.getName();
+    }
+
+    /**
+     * An indexed suggestion with its accumulated relevance and the term keys pointing at it
+     */
+    private static final class Entry {
+        private final String identity;
+        private final MapboxService.DestinationSuggestion suggestion;
+        private final List<String> termKeys = new ArrayList<>(2);
+        private double score;
+
+        private Entry(String identity, MapboxService.DestinationSuggestion suggestion) {
+            this.identity = identity;
+            this.suggestion = suggestion;
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package com.tripstory.service;
 
 import com.tripstory.entity.Destination;
+import com.tripstory.entity.Trip;
 import com.tripstory.repository.DestinationRepository;
+import com.tripstory.repository.TripRepository;
+import com.tripstory.util.TripConverter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -16,11 +30,22 @@ import java.util.Optional;
  */
 @Service
 @Transactional
+@Timed(value = "tripstory.service", description = "Service method latency")
+@Profile("!reactive")
 public class DestinationService {
 
     @Autowired
     private DestinationRepository destinationRepository;
 
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripConverter tripConverter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Get destination by ID
      */
@@ -37,30 +62,46 @@ public class DestinationService {
     }
 
     /**
-     * Save a destination
+     * Save a destination and return it converted for the API
+     * 
+     * It is flushed first, so the result carries the audit timestamps of the write
      */
-    public Destination saveDestination(Destination destination) {
+    public com.tripstory.model.Destination saveDestination(Destination destination) {
         // If no order index is set, set it to the next available position
         if (destination.getOrderIndex() == null && destination.getTrip() != null) {
             int maxIndex = destinationRepository.findMaxOrderIndexByTripId(destination.getTrip().getId());
             destination.setOrderIndex(maxIndex + 1);
         }
         
-        return destinationRepository.save(destination);
+        Destination saved = destinationRepository.saveAndFlush(destination);
+        if (saved.getTrip() != null) {
+            touchTrip(saved.getTrip().getId());
+        }
+        return tripConverter.toModel(saved);
     }
 
     /**
      * Delete a destination
      */
     public void deleteDestination(Long id) {
-        destinationRepository.deleteById(id);
+        destinationRepository.findById(id).ifPresent(destination -> {
+            destinationRepository.delete(destination);
+            if (destination.getTrip() != null) {
+                touchTrip(destination.getTrip().getId());
+            }
+        });
     }
 
     /**
-     * Reorder destinations within a trip
+     * Reorder destinations within a trip, returning them converted for the API
+     * 
+     * Only rows whose position changed are dirtied, and Hibernate sends their
+     * updates to the database as a single JDBC batch on flush. Moving a destination
+     * within its trip does not evict the trip's cached destination list, so it is
+     * evicted here once the reorder commits
      */
     @Transactional
-    public List<Destination> reorderDestinations(Long tripId, List<Long> destinationIds) {
+    public List<com.tripstory.model.Destination> reorderDestinations(Long tripId, List<Long> destinationIds) {
         // Validate that all destinations belong to the trip
         List<Destination> destinations = destinationRepository.findByTripIdOrderByOrderIndexAsc(tripId);
         
@@ -68,19 +109,35 @@ public class DestinationService {
             throw new IllegalArgumentException("Destination count mismatch");
         }
 
+        Map<Long, Destination> destinationsById = new HashMap<>();
+        for (Destination destination : destinations) {
+            destinationsById.put(destination.getId(), destination);
+        }
+
         // Update order indices
+        boolean changed = false;
+        List<Destination> reordered = new ArrayList<>(destinationIds.size());
         for (int i = 0; i < destinationIds.size(); i++) {
             Long destinationId = destinationIds.get(i);
-            Destination destination = destinations.stream()
-                    .filter(d -> d.getId().equals(destinationId))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Destination not found: " + destinationId));
+            Destination destination = destinationsById.remove(destinationId);
+            if (destination == null) {
+                throw new IllegalArgumentException("Destination not found: " + destinationId);
+            }
             
-            destination.setOrderIndex(i);
-            destinationRepository.save(destination);
+            if (!Integer.valueOf(i).equals(destination.getOrderIndex())) {
+                destination.setOrderIndex(i);
+                changed = true;
+            }
+            reordered.add(destination);
         }
 
-        return destinationRepository.findByTripIdOrderByOrderIndexAsc(tripId);
+        destinationRepository.flush();
+        if (changed) {
+            touchTrip(tripId);
+            afterCommit(() -> entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                    .getCache().evictCollectionData(Trip.DESTINATIONS_ROLE, tripId));
+        }
+        return reordered.stream().map(tripConverter::toModel).toList();
     }
 
     /**
@@ -98,6 +155,8 @@ public class DestinationService {
 
     /**
      * Bulk create destinations from Mapbox suggestions
+     * 
+     * The destinations are appended after the trip's existing ones and inserted in one batch
      */
     @Transactional
     public List<Destination> createDestinationsFromSuggestions(
@@ -109,15 +168,39 @@ public class DestinationService {
                 .toList();
 
         // Set trip and order indices
+        Trip trip = entityManager.getReference(Trip.class, tripId);
         int startIndex = destinationRepository.findMaxOrderIndexByTripId(tripId) + 1;
         for (int i = 0; i < destinations.size(); i++) {
             Destination destination = destinations.get(i);
+            destination.setTrip(trip);
             destination.setOrderIndex(startIndex + i);
-            // Trip will be set by the controller
         }
 
-        return destinations.stream()
-                .map(destinationRepository::save)
-                .toList();
+        List<Destination> saved = destinationRepository.saveAll(destinations);
+        if (!saved.isEmpty()) {
+            touchTrip(tripId);
+        }
+        return saved;
+    }
+
+    /**
+     * Bump the parent trip's modification time, since its representation
+     * summarizes its destinations and its ETag is derived from that time
+     */
+    private void touchTrip(Long tripId) {
+        tripRepository.touch(tripId, LocalDateTime.now());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
\ No newline at end of file
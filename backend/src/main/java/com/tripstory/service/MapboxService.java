@@ -1,36 +1,151 @@
 package com.tripstory.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tripstory.util.ExpiringLruCache;
+import com.tripstory.util.RateLimitedLog;
+import com.tripstory.util.SearchText;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for integrating with Mapbox Geocoding API
  * 
  * Provides destination search and autocomplete functionality
  * using Mapbox's powerful location search capabilities
+ * 
+ * Results are cached per normalized query and limit, and concurrent identical
+ * searches share a single upstream call. Upstream calls have connect and read
+ * timeouts, and callers sharing a search stop waiting after the two combined and
+ * get the fallback instead. Empty results are cached only briefly,
+ * and failed or unreadable responses are not cached at all. Every suggestion received is also kept
+ * in a prefix index that answers short queries locally and serves as the
+ * fallback when Mapbox is unavailable.
+ * 
+ * {@link #searchDestinationsAsync} is the non-blocking variant for the reactive
+ * stack; it shares the cache, the prefix index and the in-flight searches.
+ * 
+ * Searches are counted under tripstory.mapbox.searches by where the answer came
+ * from, and upstream calls are timed under tripstory.mapbox.requests by outcome.
  */
 @Service
 public class MapboxService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MapboxService.class);
+    // One line per failed search would flood the log while Mapbox is down
+    private static final RateLimitedLog upstreamErrorLog = new RateLimitedLog(logger, 5, 60_000);
+
     private final RestTemplate restTemplate;
+    private final WebClient webClient;
     private final ObjectMapper objectMapper;
     
     @Value("${mapbox.access-token:}")
     private String accessToken;
     
-    private static final String MAPBOX_GEOCODING_URL = "https://api.mapbox.com/geocoding/v5/mapbox.places";
+    @Value("${mapbox.base-url:" + MAPBOX_API_URL + "}")
+    private String baseUrl;
+    
+    private static final String MAPBOX_API_URL = "https://api.mapbox.com";
+    private static final String GEOCODING_PATH = "/geocoding/v5/mapbox.places";
+
+    // Seed for the prefix index so a cold instance still has suggestions in degraded mode
+    private static final List<DestinationSuggestion> POPULAR_DESTINATIONS = List.of(
+            new DestinationSuggestion("Paris", "Paris, France", "place", 48.8566, 2.3522),
+            new DestinationSuggestion("Tokyo", "Tokyo, Japan", "place", 35.6762, 139.6503),
+            new DestinationSuggestion("New York", "New York, NY, USA", "place", 40.7128, -74.0060),
+            new DestinationSuggestion("London", "London, England, UK", "place", 51.5074, -0.1278)
+    );
 
-    public MapboxService() {
-        this.restTemplate = new RestTemplate();
+    private final ExpiringLruCache<String, List<DestinationSuggestion>> searchCache;
+    private final long emptyResultTtlMillis;
+    private final DestinationPrefixIndex prefixIndex;
+    private final ConcurrentHashMap<String, CompletableFuture<List<DestinationSuggestion>>> inFlightSearches =
+            new ConcurrentHashMap<>();
+    private final long sharedSearchTimeoutMillis;
+
+    private final Counter cacheHits;
+    private final Counter localAnswers;
+    private final Counter sharedSearches;
+    private final Counter apiAnswers;
+    private final Counter fallbackAnswers;
+    private final Timer successfulRequests;
+    private final Timer failedRequests;
+
+    public MapboxService(
+            MeterRegistry meterRegistry,
+            @Value("${mapbox.cache.max-entries:5000}") int cacheMaxEntries,
+            @Value("${mapbox.cache.ttl-minutes:360}") long cacheTtlMinutes,
+            @Value("${mapbox.cache.empty-ttl-minutes:5}") long emptyResultTtlMinutes,
+            @Value("${mapbox.prefix-index.max-entries:100000}") int prefixIndexMaxEntries,
+            @Value("${mapbox.max-connections:500}") int maxConnections,
+            @Value("${mapbox.connect-timeout-ms:2000}") int connectTimeoutMillis,
+            @Value("${mapbox.read-timeout-ms:5000}") int readTimeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMillis);
+        requestFactory.setReadTimeout(readTimeoutMillis);
+        this.restTemplate = new RestTemplate(requestFactory);
+        // Reactor Netty's shared pool allows only a few connections per host, which would
+        // cap the searches in flight on the reactive stack far below what Mapbox accepts
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(
+                        HttpClient.create(ConnectionProvider.create("mapbox", maxConnections))
+                                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                                .responseTimeout(Duration.ofMillis(readTimeoutMillis))))
+                .build();
+        this.sharedSearchTimeoutMillis = (long) connectTimeoutMillis + readTimeoutMillis;
         this.objectMapper = new ObjectMapper();
+        this.searchCache = new ExpiringLruCache<>(cacheMaxEntries, TimeUnit.MINUTES.toMillis(cacheTtlMinutes));
+        this.emptyResultTtlMillis = TimeUnit.MINUTES.toMillis(emptyResultTtlMinutes);
+        this.prefixIndex = new DestinationPrefixIndex(prefixIndexMaxEntries);
+        this.prefixIndex.addAll(POPULAR_DESTINATIONS);
+        this.cacheHits = searchCounter(meterRegistry, "cache_hit");
+        this.localAnswers = searchCounter(meterRegistry, "local");
+        this.sharedSearches = searchCounter(meterRegistry, "shared");
+        this.apiAnswers = searchCounter(meterRegistry, "api");
+        this.fallbackAnswers = searchCounter(meterRegistry, "fallback");
+        this.successfulRequests = requestTimer(meterRegistry, "success");
+        this.failedRequests = requestTimer(meterRegistry, "error");
+    }
+
+    private static Counter searchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tripstory.mapbox.searches")
+                .description("Destination searches by where the answer came from")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("tripstory.mapbox.requests")
+                .description("Mapbox Geocoding API call latency")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     /**
@@ -44,66 +159,244 @@ public class MapboxService {
             return new ArrayList<>();
         }
 
-        if (accessToken == null || accessToken.isEmpty()) {
-            System.err.println("Mapbox access token not configured");
-            return getFallbackSuggestions(query);
+        String normalizedQuery = normalizeQuery(query);
+        int searchLimit = limit != null ? Math.min(limit, 10) : 5;
+        String cacheKey = searchLimit + ":" + normalizedQuery;
+
+        List<DestinationSuggestion> answer = answerWithoutApi(query, normalizedQuery, searchLimit, cacheKey);
+        if (answer != null) {
+            return answer;
         }
 
+        // Single-flight: the first caller fetches, identical concurrent callers wait for its result
+        CompletableFuture<List<DestinationSuggestion>> search = new CompletableFuture<>();
+        CompletableFuture<List<DestinationSuggestion>> inFlight = inFlightSearches.putIfAbsent(cacheKey, search);
+        if (inFlight != null) {
+            sharedSearches.increment();
+            return awaitSharedSearch(inFlight, query, searchLimit);
+        }
+
+        long start = System.nanoTime();
         try {
-            String encodedQuery = URLEncoder.encode(query.trim(), StandardCharsets.UTF_8);
+            List<DestinationSuggestion> suggestions =
+                    recordApiAnswer(cacheKey, fetchFromMapbox(normalizedQuery, searchLimit), start);
+            search.complete(suggestions);
+            return suggestions;
+
+        } catch (Exception e) {
+            List<DestinationSuggestion> fallback = recordFailure(query, searchLimit, e, start);
+            search.complete(fallback);
+            return fallback;
+
+        } catch (Throwable t) {
+            // Waiters must not block forever on a search that died with an Error
+            search.completeExceptionally(t);
+            throw t;
+
+        } finally {
+            inFlightSearches.remove(cacheKey, search);
+        }
+    }
+
+    /**
+     * Search for destinations without blocking the calling thread
+     * 
+     * Answers from the cache and the prefix index complete immediately. Otherwise the
+     * Mapbox call runs to completion even if the caller cancels, so its result is still
+     * cached for the next request and identical in-flight searches are not cut short.
+     * 
+     * @param query Search query (e.g., "Paris", "New York City", "Tokyo")
+     * @param limit Maximum number of results (default: 5)
+     * @return Destination suggestions
+     */
+    public Mono<List<DestinationSuggestion>> searchDestinationsAsync(String query, Integer limit) {
+        return Mono.defer(() -> {
+            if (query == null || query.trim().isEmpty()) {
+                return Mono.just(List.of());
+            }
+
+            String normalizedQuery = normalizeQuery(query);
             int searchLimit = limit != null ? Math.min(limit, 10) : 5;
-            
-            String url = String.format("%s/%s.json?access_token=%s&limit=%d&types=place,country,region,postcode,locality",
-                    MAPBOX_GEOCODING_URL, encodedQuery, accessToken, searchLimit);
+            String cacheKey = searchLimit + ":" + normalizedQuery;
 
-            System.out.println("Searching Mapbox for: " + query);
-            String response = restTemplate.getForObject(url, String.class);
-            
-            return parseMapboxResponse(response);
+            List<DestinationSuggestion> answer = answerWithoutApi(query, normalizedQuery, searchLimit, cacheKey);
+            if (answer != null) {
+                return Mono.just(answer);
+            }
 
-        } catch (Exception e) {
-            System.err.println("Error searching Mapbox: " + e.getMessage());
-            return getFallbackSuggestions(query);
+            CompletableFuture<List<DestinationSuggestion>> search = new CompletableFuture<>();
+            CompletableFuture<List<DestinationSuggestion>> inFlight = inFlightSearches.putIfAbsent(cacheKey, search);
+            if (inFlight != null) {
+                sharedSearches.increment();
+                return Mono.fromFuture(inFlight, true)
+                        .timeout(Duration.ofMillis(sharedSearchTimeoutMillis),
+                                Mono.fromSupplier(() -> sharedSearchTimedOut(query, searchLimit)));
+            }
+
+            long start = System.nanoTime();
+            fetchFromMapboxAsync(normalizedQuery, searchLimit)
+                    .map(suggestions -> recordApiAnswer(cacheKey, suggestions, start))
+                    .onErrorResume(Exception.class,
+                            e -> Mono.fromSupplier(() -> recordFailure(query, searchLimit, e, start)))
+                    .doFinally(signal -> inFlightSearches.remove(cacheKey, search))
+                    .subscribe(search::complete, search::completeExceptionally);
+            return Mono.fromFuture(search, true);
+        });
+    }
+
+    /**
+     * Answer from the cache, the prefix index or the fallback when no token is configured
+     * 
+     * @return The suggestions, or null if Mapbox has to be asked
+     */
+    private List<DestinationSuggestion> answerWithoutApi(String query, String normalizedQuery,
+                                                         int searchLimit, String cacheKey) {
+        List<DestinationSuggestion> cached = searchCache.get(cacheKey);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        // Answer locally when previously seen destinations already fill the page
+        List<DestinationSuggestion> localMatches = prefixIndex.search(normalizedQuery, searchLimit);
+        if (localMatches.size() >= searchLimit) {
+            localAnswers.increment();
+            return localMatches;
         }
+
+        if (accessToken == null || accessToken.isEmpty()) {
+            upstreamErrorLog.warn("Mapbox access token not configured, serving fallback suggestions");
+            fallbackAnswers.increment();
+            return getFallbackSuggestions(query, searchLimit);
+        }
+        return null;
+    }
+
+    /**
+     * Wait for an identical search already in flight, at most as long as an upstream call may take
+     */
+    private List<DestinationSuggestion> awaitSharedSearch(CompletableFuture<List<DestinationSuggestion>> inFlight,
+                                                          String query, int searchLimit) {
+        try {
+            return inFlight.get(sharedSearchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return sharedSearchTimedOut(query, searchLimit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return sharedSearchTimedOut(query, searchLimit);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private List<DestinationSuggestion> sharedSearchTimedOut(String query, int searchLimit) {
+        fallbackAnswers.increment();
+        upstreamErrorLog.warn("Gave up waiting {} ms for a shared Mapbox search", sharedSearchTimeoutMillis);
+        return getFallbackSuggestions(query, searchLimit);
+    }
+
+    private List<DestinationSuggestion> recordApiAnswer(String cacheKey, List<DestinationSuggestion> fetched, long start) {
+        List<DestinationSuggestion> suggestions = List.copyOf(fetched);
+        successfulRequests.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        apiAnswers.increment();
+        if (suggestions.isEmpty()) {
+            // A query with no matches may just be mistyped or too new; ask again soon
+            searchCache.put(cacheKey, suggestions, emptyResultTtlMillis);
+        } else {
+            searchCache.put(cacheKey, suggestions);
+        }
+        prefixIndex.addAll(suggestions);
+        return suggestions;
+    }
+
+    private List<DestinationSuggestion> recordFailure(String query, int searchLimit, Exception e, long start) {
+        failedRequests.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        fallbackAnswers.increment();
+        // Netty's response timeout carries no message
+        upstreamErrorLog.warn("Error searching Mapbox: {}",
+                e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        return getFallbackSuggestions(query, searchLimit);
+    }
+
+    /**
+     * Fold case and whitespace so equivalent queries share a cache entry
+     */
+    static String normalizeQuery(String query) {
+        return SearchText.normalize(query);
+    }
+
+    /**
+     * Call the Mapbox Geocoding API
+     */
+    private List<DestinationSuggestion> fetchFromMapbox(String query, int searchLimit) {
+        logger.debug("Searching Mapbox for: {}", query);
+        String response = restTemplate.getForObject(searchUri(query, searchLimit), String.class);
+        
+        return parseMapboxResponse(response);
+    }
+
+    /**
+     * Call the Mapbox Geocoding API without blocking
+     */
+    private Mono<List<DestinationSuggestion>> fetchFromMapboxAsync(String query, int searchLimit) {
+        logger.debug("Searching Mapbox for: {}", query);
+        return webClient.get()
+                .uri(searchUri(query, searchLimit))
+                .retrieve()
+                .bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(this::parseMapboxResponse);
+    }
+
+    private URI searchUri(String query, int searchLimit) {
+        String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
+        return URI.create(String.format("%s/%s.json?access_token=%s&limit=%d&types=place,country,region,postcode,locality",
+                baseUrl + GEOCODING_PATH, encodedQuery, accessToken, searchLimit));
     }
 
     /**
      * Parse Mapbox API response and convert to destination suggestions
+     * 
+     * @throws IllegalStateException if the response is not a Mapbox feature collection,
+     *         so it is treated as a failed search rather than an empty result
      */
-    private List<DestinationSuggestion> parseMapboxResponse(String response) {
-        List<DestinationSuggestion> suggestions = new ArrayList<>();
+    List<DestinationSuggestion> parseMapboxResponse(String response) {
+        if (response == null || response.isEmpty()) {
+            throw new IllegalStateException("Empty Mapbox response");
+        }
 
+        JsonNode features;
         try {
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode features = root.get("features");
-
-            if (features != null && features.isArray()) {
-                for (JsonNode feature : features) {
-                    String placeName = feature.get("place_name").asText();
-                    String text = feature.get("text").asText();
-                    
-                    // Get coordinates
-                    JsonNode center = feature.get("center");
-                    Double longitude = center != null ? center.get(0).asDouble() : null;
-                    Double latitude = center != null ? center.get(1).asDouble() : null;
-                    
-                    // Get place type
-                    JsonNode placeType = feature.get("place_type");
-                    String type = placeType != null && placeType.isArray() && placeType.size() > 0 
-                            ? placeType.get(0).asText() : "place";
-
-                    suggestions.add(new DestinationSuggestion(
-                            text,           // Short name
-                            placeName,      // Full name with context
-                            type,           // Place type
-                            latitude,       // Latitude
-                            longitude       // Longitude
-                    ));
-                }
-            }
+            features = objectMapper.readTree(response).get("features");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable Mapbox response: " + e.getOriginalMessage(), e);
+        }
+        if (features == null || !features.isArray()) {
+            throw new IllegalStateException("Mapbox response has no features");
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error parsing Mapbox response: " + e.getMessage());
+        List<DestinationSuggestion> suggestions = new ArrayList<>();
+        for (JsonNode feature : features) {
+            String placeName = feature.get("place_name").asText();
+            String text = feature.get("text").asText();
+            
+            // Get coordinates
+            JsonNode center = feature.get("center");
+            Double longitude = center != null ? center.get(0).asDouble() : null;
+            Double latitude = center != null ? center.get(1).asDouble() : null;
+            
+            // Get place type
+            JsonNode placeType = feature.get("place_type");
+            String type = placeType != null && placeType.isArray() && placeType.size() > 0 
+                    ? placeType.get(0).asText() : "place";
+
+            suggestions.add(new DestinationSuggestion(
+                    text,           // Short name
+                    placeName,      // Full name with context
+                    type,           // Place type
+                    latitude,       // Latitude
+                    longitude       // Longitude
+            ));
         }
 
         return suggestions;
@@ -111,9 +404,15 @@ public class MapboxService {
 
     /**
      * Fallback suggestions when Mapbox is unavailable
+     * 
+     * Echoes the user's query followed by matching destinations from the prefix index,
+     * at most {@code limit} suggestions in all.
      */
-    private List<DestinationSuggestion> getFallbackSuggestions(String query) {
+    private List<DestinationSuggestion> getFallbackSuggestions(String query, int limit) {
         List<DestinationSuggestion> fallback = new ArrayList<>();
+        if (limit < 1) {
+            return fallback;
+        }
         
         // Add the user's query as a basic suggestion
         fallback.add(new DestinationSuggestion(
@@ -124,17 +423,8 @@ public class MapboxService {
                 null
         ));
 
-        // Add some popular destinations if query matches
-        String lowerQuery = query.toLowerCase();
-        if (lowerQuery.contains("paris")) {
-            fallback.add(new DestinationSuggestion("Paris", "Paris, France", "place", 48.8566, 2.3522));
-        } else if (lowerQuery.contains("tokyo")) {
-            fallback.add(new DestinationSuggestion("Tokyo", "Tokyo, Japan", "place", 35.6762, 139.6503));
-        } else if (lowerQuery.contains("new york")) {
-            fallback.add(new DestinationSuggestion("New York", "New York, NY, USA", "place", 40.7128, -74.0060));
-        } else if (lowerQuery.contains("london")) {
-            fallback.add(new DestinationSuggestion("London", "London, England, UK", "place", 51.5074, -0.1278));
-        }
+        // Add previously seen destinations matching the query
+        fallback.addAll(prefixIndex.search(normalizeQuery(query), limit - 1));
 
         return fallback;
     }
@@ -0,0 +1,159 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.DestinationRow;
+import com.tripstory.repository.ReactiveDestinationRepository;
+import com.tripstory.repository.ReactiveTripRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Destination operations for the reactive stack
+ *
+ * The counterpart of {@link DestinationService}. Every operation first checks that
+ * the trip belongs to the calling user, and every change bumps the trip's version
+ * in the same transaction.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveDestinationService {
+
+    private final ReactiveDestinationRepository destinationRepository;
+    private final ReactiveTripRepository tripRepository;
+    private final ReactiveTripService tripService;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveDestinationService(ReactiveDestinationRepository destinationRepository,
+                                      ReactiveTripRepository tripRepository,
+                                      ReactiveTripService tripService,
+                                      TransactionalOperator transactionalOperator) {
+        this.destinationRepository = destinationRepository;
+        this.tripRepository = tripRepository;
+        this.tripService = tripService;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Get all destinations of one of the user's trips, ordered by orderIndex
+     */
+    public Mono<List<DestinationRow>> getDestinations(String ownerUid, Long tripId) {
+        return tripService.findOwnedTrip(ownerUid, tripId)
+                .flatMap(trip -> destinationRepository.findByTripIdOrderByOrderIndexAsc(tripId).collectList());
+    }
+
+    /**
+     * Append a destination to one of the user's trips, unless it names its position
+     */
+    public Mono<DestinationRow> addDestination(String ownerUid, Long tripId, Destination destination) {
+        return tripService.findOwnedTrip(ownerUid, tripId)
+                .flatMap(trip -> {
+                    DestinationRow row = DestinationRow.from(destination, tripId);
+                    Mono<DestinationRow> positioned = row.getOrderIndex() != null
+                            ? Mono.just(row)
+                            : destinationRepository.findMaxOrderIndexByTripId(tripId)
+                                    .map(maxIndex -> {
+                                        row.setOrderIndex(maxIndex + 1);
+                                        return row;
+                                    });
+                    return positioned.flatMap(tripService::insertDestination)
+                            .flatMap(saved -> touchTrip(tripId).thenReturn(saved));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Update a destination of one of the user's trips
+     *
+     * @return The updated destination, or empty if the trip has no such destination
+     */
+    public Mono<DestinationRow> updateDestination(String ownerUid, Long tripId, Long destinationId,
+                                                  Destination update) {
+        return findDestination(ownerUid, tripId, destinationId)
+                .flatMap(existing -> {
+                    existing.updateFrom(update);
+                    return destinationRepository.save(existing);
+                })
+                .flatMap(saved -> touchTrip(tripId).thenReturn(saved))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Delete a destination of one of the user's trips
+     *
+     * @return Whether the trip had such a destination
+     */
+    public Mono<Boolean> deleteDestination(String ownerUid, Long tripId, Long destinationId) {
+        return findDestination(ownerUid, tripId, destinationId)
+                .flatMap(destination -> destinationRepository.delete(destination)
+                        .then(touchTrip(tripId))
+                        .thenReturn(true))
+                .defaultIfEmpty(false)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Reorder the destinations of one of the user's trips
+     *
+     * Only rows whose position changed are written.
+     */
+    public Mono<List<DestinationRow>> reorderDestinations(String ownerUid, Long tripId, List<Long> destinationIds) {
+        return tripService.findOwnedTrip(ownerUid, tripId)
+                .flatMap(trip -> destinationRepository.findByTripIdOrderByOrderIndexAsc(tripId).collectList())
+                .flatMap(destinations -> {
+                    if (destinations.size() != destinationIds.size()) {
+                        return Mono.error(new IllegalArgumentException("Destination count mismatch"));
+                    }
+
+                    Map<Long, DestinationRow> destinationsById = new HashMap<>();
+                    for (DestinationRow destination : destinations) {
+                        destinationsById.put(destination.getId(), destination);
+                    }
+
+                    List<DestinationRow> reordered = new ArrayList<>(destinationIds.size());
+                    List<DestinationRow> changed = new ArrayList<>();
+                    for (int i = 0; i < destinationIds.size(); i++) {
+                        Long destinationId = destinationIds.get(i);
+                        DestinationRow destination = destinationsById.remove(destinationId);
+                        if (destination == null) {
+                            return Mono.error(new IllegalArgumentException("Destination not found: " + destinationId));
+                        }
+                        if (!Integer.valueOf(i).equals(destination.getOrderIndex())) {
+                            destination.setOrderIndex(i);
+                            changed.add(destination);
+                        }
+                        reordered.add(destination);
+                    }
+
+                    if (changed.isEmpty()) {
+                        return Mono.just(reordered);
+                    }
+                    // Saving sets the bumped versions on the rows themselves
+                    return destinationRepository.saveAll(changed)
+                            .then(touchTrip(tripId))
+                            .thenReturn(reordered);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<DestinationRow> findDestination(String ownerUid, Long tripId, Long destinationId) {
+        return tripService.findOwnedTrip(ownerUid, tripId)
+                .flatMap(trip -> destinationRepository.findById(destinationId))
+                .filter(destination -> tripId.equals(destination.getTripId()));
+    }
+
+    /**
+     * Bump the parent trip's version and modification time, since its representation
+     * summarizes its destinations and its ETag is derived from its version
+     */
+    private Mono<Integer> touchTrip(Long tripId) {
+        return tripRepository.touch(tripId, LocalDateTime.now());
+    }
+}
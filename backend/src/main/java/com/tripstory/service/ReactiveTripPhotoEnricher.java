@@ -0,0 +1,224 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.DestinationPhoto;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.repository.ReactiveTripRepository;
+import com.tripstory.util.ExpiringLruCache;
+import com.tripstory.util.RateLimitedLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fetches Unsplash photos for newly created trips on the reactive stack
+ *
+ * The counterpart of {@link TripPhotoEnricher} and {@link UnsplashService}: lookups
+ * are queued once the creating transaction commits, at most
+ * unsplash.enrichment.threads run at a time, and a full queue marks the trip's
+ * image unavailable. Photos are looked up in the same memory, destination_photos
+ * and Unsplash tiers, counted under the same tripstory.unsplash.lookups meter.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTripPhotoEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTripPhotoEnricher.class);
+    private static final RateLimitedLog fetchErrorLog = new RateLimitedLog(logger, 5, 60_000);
+
+    private final ReactiveTripRepository tripRepository;
+    private final DatabaseClient databaseClient;
+    private final UnsplashClient unsplashClient;
+    private final ExpiringLruCache<String, DestinationPhoto> photoCache;
+    private final long photoMaxAgeDays;
+    private final long missingPhotoMaxAgeDays;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter apiLookups;
+    private final Counter unavailableLookups;
+
+    private final Sinks.Many<PhotoRequest> requests;
+    // Sinks reject concurrent emissions instead of waiting for them
+    private final ReentrantLock emitLock = new ReentrantLock();
+    private final Disposable worker;
+
+    public ReactiveTripPhotoEnricher(ReactiveTripRepository tripRepository,
+                                     DatabaseClient databaseClient,
+                                     UnsplashClient unsplashClient,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${unsplash.enrichment.threads:2}") int threads,
+                                     @Value("${unsplash.enrichment.queue-capacity:100}") int queueCapacity,
+                                     @Value("${unsplash.cache.max-entries:1000}") int cacheMaxEntries,
+                                     @Value("${unsplash.cache.photo-max-age-days:30}") long photoMaxAgeDays,
+                                     @Value("${unsplash.cache.missing-photo-max-age-days:1}") long missingPhotoMaxAgeDays) {
+        this.tripRepository = tripRepository;
+        this.databaseClient = databaseClient;
+        this.unsplashClient = unsplashClient;
+        this.photoCache = new ExpiringLruCache<>(cacheMaxEntries, TimeUnit.HOURS.toMillis(1));
+        this.photoMaxAgeDays = photoMaxAgeDays;
+        this.missingPhotoMaxAgeDays = missingPhotoMaxAgeDays;
+        this.memoryHits = UnsplashService.lookupCounter(meterRegistry, "memory");
+        this.databaseHits = UnsplashService.lookupCounter(meterRegistry, "database");
+        this.apiLookups = UnsplashService.lookupCounter(meterRegistry, "api");
+        this.unavailableLookups = UnsplashService.lookupCounter(meterRegistry, "unavailable");
+
+        this.requests = Sinks.many().unicast().onBackpressureBuffer(Queues.<PhotoRequest>get(queueCapacity).get());
+        this.worker = requests.asFlux()
+                .flatMap(request -> fetchAndApply(request.tripId, request.destination), threads)
+                .subscribe();
+    }
+
+    /**
+     * Queue a photo lookup for a committed trip
+     *
+     * @param tripId ID of the saved trip
+     * @param destination Destination name to search photos for
+     */
+    public void enrich(Long tripId, String destination) {
+        Sinks.EmitResult result;
+        emitLock.lock();
+        try {
+            result = requests.tryEmitNext(new PhotoRequest(tripId, destination));
+        } finally {
+            emitLock.unlock();
+        }
+        if (result.isFailure()) {
+            logger.warn("Photo enrichment queue full, skipping trip {}", tripId);
+            markUnavailable(tripId).subscribe();
+        }
+    }
+
+    private Mono<Void> fetchAndApply(Long tripId, String destination) {
+        return getPhotoForDestination(destination)
+                .flatMap(photo -> photo.hasImage()
+                        ? tripRepository.updateImage(tripId, photo.getImageUrl(), photo.getImageAttribution(),
+                                ImageStatus.READY, LocalDateTime.now())
+                            .doOnSuccess(updated -> logger.info("Added Unsplash image for trip {}", tripId))
+                        : markUnavailable(tripId))
+                .switchIfEmpty(markUnavailable(tripId))
+                .then()
+                .onErrorResume(e -> {
+                    logger.error("Photo enrichment failed for trip {}", tripId, e);
+                    return markUnavailable(tripId).then();
+                });
+    }
+
+    private Mono<Integer> markUnavailable(Long tripId) {
+        return Mono.defer(() -> tripRepository.updateImage(tripId, null, null, ImageStatus.UNAVAILABLE, LocalDateTime.now()))
+                .onErrorResume(e -> {
+                    logger.error("Could not mark the image of trip {} unavailable", tripId, e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Get the photo for a destination, consulting the in-process LRU and the
+     * destination_photos table before calling Unsplash
+     *
+     * @return The cached or freshly fetched photo (which may record that none exists),
+     *         the stale stored one if Unsplash could not be reached, or empty if there is none
+     */
+    private Mono<DestinationPhoto> getPhotoForDestination(String destination) {
+        String destinationKey = MapboxService.normalizeQuery(destination);
+
+        DestinationPhoto cached = photoCache.get(destinationKey);
+        if (cached != null && isFresh(cached)) {
+            memoryHits.increment();
+            return Mono.just(cached);
+        }
+
+        return findStoredPhoto(destinationKey)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(stored -> {
+                    if (stored.isPresent() && isFresh(stored.get())) {
+                        photoCache.put(destinationKey, stored.get());
+                        databaseHits.increment();
+                        return Mono.just(stored.get());
+                    }
+                    return unsplashClient.searchPhoto(destination)
+                            .map(photo -> UnsplashClient.toDestinationPhoto(destinationKey, photo))
+                            .defaultIfEmpty(UnsplashClient.toDestinationPhoto(destinationKey, null))
+                            .flatMap(fetched -> storePhoto(fetched, stored.isPresent())
+                                    .doOnSuccess(done -> {
+                                        photoCache.put(destinationKey, fetched);
+                                        apiLookups.increment();
+                                    })
+                                    .thenReturn(fetched))
+                            .onErrorResume(e -> {
+                                fetchErrorLog.error("Error fetching photo for destination: {}", destination, e);
+                                unavailableLookups.increment();
+                                return Mono.justOrEmpty(stored);
+                            });
+                });
+    }
+
+    private Mono<DestinationPhoto> findStoredPhoto(String destinationKey) {
+        return databaseClient.sql("SELECT image_url, image_attribution, fetched_at FROM destination_photos " +
+                        "WHERE destination_key = :destinationKey")
+                .bind("destinationKey", destinationKey)
+                .map(row -> new DestinationPhoto(destinationKey,
+                        row.get("image_url", String.class),
+                        row.get("image_attribution", String.class),
+                        row.get("fetched_at", LocalDateTime.class)))
+                .one();
+    }
+
+    private Mono<Void> storePhoto(DestinationPhoto photo, boolean replace) {
+        String sql = replace
+                ? "UPDATE destination_photos SET image_url = :imageUrl, image_attribution = :imageAttribution, " +
+                  "fetched_at = :fetchedAt WHERE destination_key = :destinationKey"
+                : "INSERT INTO destination_photos (destination_key, image_url, image_attribution, fetched_at) " +
+                  "VALUES (:destinationKey, :imageUrl, :imageAttribution, :fetchedAt)";
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql)
+                .bind("destinationKey", photo.getDestinationKey())
+                .bind("fetchedAt", photo.getFetchedAt());
+        statement = photo.getImageUrl() != null
+                ? statement.bind("imageUrl", photo.getImageUrl())
+                : statement.bindNull("imageUrl", String.class);
+        statement = photo.getImageAttribution() != null
+                ? statement.bind("imageAttribution", photo.getImageAttribution())
+                : statement.bindNull("imageAttribution", String.class);
+        return statement.then()
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    // Another lookup stored the same destination concurrently
+                    logger.debug("Photo for {} already stored", photo.getDestinationKey());
+                    return Mono.empty();
+                });
+    }
+
+    private boolean isFresh(DestinationPhoto photo) {
+        long maxAgeDays = photo.hasImage() ? photoMaxAgeDays : missingPhotoMaxAgeDays;
+        return photo.getFetchedAt().plusDays(maxAgeDays).isAfter(LocalDateTime.now());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.dispose();
+    }
+
+    private static class PhotoRequest {
+        private final Long tripId;
+        private final String destination;
+
+        PhotoRequest(Long tripId, String destination) {
+            this.tripId = tripId;
+            this.destination = destination;
+        }
+    }
+}
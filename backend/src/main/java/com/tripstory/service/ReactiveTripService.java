@@ -0,0 +1,365 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.DestinationRow;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.Trip;
+import com.tripstory.entity.TripRow;
+import com.tripstory.exception.TripNotFoundException;
+import com.tripstory.repository.ReactiveDestinationRepository;
+import com.tripstory.repository.ReactiveTripRepository;
+import com.tripstory.util.SearchText;
+import com.tripstory.util.TripCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trip operations for the reactive stack
+ *
+ * The non-blocking counterpart of {@link TripService}, with the same validation,
+ * owner scoping and statistics cache. Destinations are loaded with one query per
+ * batch of trips instead of through a JPA association, and full lists are read in
+ * keyset pages so a request holds a pooled connection only while a page is read.
+ * Search runs the ranked SQL query on every database; there is no in-memory index.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveTripService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTripService.class);
+
+    private static final int STREAM_PAGE_SIZE = 100;
+
+    private final ReactiveTripRepository tripRepository;
+    private final ReactiveDestinationRepository destinationRepository;
+    private final ReactiveTripPhotoEnricher tripPhotoEnricher;
+    private final TransactionalOperator transactionalOperator;
+    private final TripStatisticsCache statisticsCache = new TripStatisticsCache();
+
+    public ReactiveTripService(ReactiveTripRepository tripRepository,
+                               ReactiveDestinationRepository destinationRepository,
+                               ReactiveTripPhotoEnricher tripPhotoEnricher,
+                               TransactionalOperator transactionalOperator) {
+        this.tripRepository = tripRepository;
+        this.destinationRepository = destinationRepository;
+        this.tripPhotoEnricher = tripPhotoEnricher;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Retrieve one page of the user's trips in keyset order
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param after Cursor of the last trip of the previous page, or null for the first page
+     * @param limit Maximum number of trips to return
+     */
+    public Mono<List<TripDetails>> getTripsPage(String ownerUid, TripCursor after, int limit) {
+        logger.debug("Fetching trips page after {} (limit {})", after != null ? after.encode() : null, limit);
+        return findPage(ownerUid, after, limit)
+                .flatMapMany(this::withDestinations)
+                .collectList();
+    }
+
+    /**
+     * Stream the user's trips in keyset order
+     *
+     * Trips are read {@value #STREAM_PAGE_SIZE} at a time, each page followed by one
+     * query for its destinations, and the next page is only read once the subscriber
+     * has asked for more.
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param after Cursor to resume after, or null to start from the beginning
+     * @param limit Maximum number of trips to emit, or null for no limit
+     */
+    public Flux<TripDetails> streamTrips(String ownerUid, TripCursor after, Integer limit) {
+        logger.debug("Streaming trips after {}", after != null ? after.encode() : null);
+        int pageSize = limit != null ? Math.min(limit, STREAM_PAGE_SIZE) : STREAM_PAGE_SIZE;
+        Flux<TripDetails> trips = findPage(ownerUid, after, pageSize)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : findPage(ownerUid, TripCursor.after(page.get(page.size() - 1)), pageSize))
+                .concatMap(this::withDestinations);
+        return limit != null ? trips.take(limit) : trips;
+    }
+
+    /**
+     * Retrieve one of the user's trips by its ID
+     *
+     * @return The trip, or an error with TripNotFoundException if it is not found or belongs to another user
+     */
+    public Mono<TripDetails> getTripById(String ownerUid, Long id) {
+        logger.debug("Fetching trip with ID: {}", id);
+        return findOwnedTrip(ownerUid, id).flatMap(this::withDestinations);
+    }
+
+    /**
+     * Retrieve one of the user's trips without its destinations, enough to revalidate a cached copy
+     *
+     * @return The trip, or an error with TripNotFoundException if it is not found or belongs to another user
+     */
+    public Mono<TripRow> getTripRow(String ownerUid, Long id) {
+        return findOwnedTrip(ownerUid, id);
+    }
+
+    /**
+     * Load the destinations of a trip returned by {@link #getTripRow}
+     */
+    public Mono<TripDetails> withDestinations(TripRow trip) {
+        return destinationRepository.findByTripIdOrderByOrderIndexAsc(trip.getId())
+                .collectList()
+                .map(destinations -> new TripDetails(trip, destinations));
+    }
+
+    /**
+     * Create a new trip owned by the user, with the destinations of the given trip
+     *
+     * The photo lookup is queued once the trip is committed.
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param trip The trip to create, as built from the create request
+     * @throws IllegalArgumentException if trip data is invalid
+     */
+    public Mono<TripDetails> createTrip(String ownerUid, Trip trip) {
+        return Mono.defer(() -> {
+            logger.debug("Creating new trip: {}", trip.getTitle());
+
+            TripService.validateTrip(trip);
+            trip.setOwnerUid(ownerUid);
+            String photoDestination = trip.getDestinations().isEmpty()
+                    ? null : trip.getDestinations().get(0).getName();
+            trip.setImageStatus(photoDestination != null ? ImageStatus.PENDING : ImageStatus.UNAVAILABLE);
+
+            return saveWithUniqueTitle(TripRow.from(trip))
+                    .flatMap(saved -> Flux.fromIterable(trip.getDestinations())
+                            .concatMap(destination -> insertDestination(DestinationRow.from(destination, saved.getId())))
+                            .collectList()
+                            .map(destinations -> new TripDetails(saved, destinations)))
+                    .as(transactionalOperator::transactional)
+                    .doOnNext(created -> {
+                        statisticsCache.invalidate(ownerUid);
+                        if (photoDestination != null) {
+                            tripPhotoEnricher.enrich(created.getTrip().getId(), photoDestination);
+                        }
+                        logger.info("Successfully created trip with ID: {}", created.getTrip().getId());
+                    });
+        });
+    }
+
+    /**
+     * Update one of the user's trips
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param existing The trip as loaded by {@link #getTripById}, with the changes applied
+     * @return The updated trip, or an error with OptimisticLockingFailureException if the
+     *         trip changed since it was loaded
+     */
+    public Mono<TripDetails> updateTrip(String ownerUid, TripDetails existing) {
+        return Mono.defer(() -> {
+            TripRow trip = existing.getTrip();
+            logger.debug("Updating trip with ID: {}", trip.getId());
+
+            TripService.validateDates(trip.getStartDate(), trip.getEndDate());
+            return saveWithUniqueTitle(trip)
+                    .map(saved -> new TripDetails(saved, existing.getDestinations()))
+                    .doOnNext(updated -> {
+                        statisticsCache.invalidate(ownerUid);
+                        logger.info("Successfully updated trip with ID: {}", trip.getId());
+                    });
+        });
+    }
+
+    /**
+     * Delete one of the user's trips and its destinations
+     *
+     * @return Empty on success, or an error with TripNotFoundException if trip is not found
+     */
+    public Mono<Void> deleteTrip(String ownerUid, Long id) {
+        logger.debug("Deleting trip with ID: {}", id);
+        return findOwnedTrip(ownerUid, id)
+                .flatMap(trip -> destinationRepository.deleteByTripId(id)
+                        .then(tripRepository.delete(trip)))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(done -> {
+                    statisticsCache.invalidate(ownerUid);
+                    logger.info("Successfully deleted trip with ID: {}", id);
+                });
+    }
+
+    /**
+     * Search the user's trips by title and notes, best match first
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param searchTerm Term matched case-insensitively anywhere in the title or notes
+     * @param limit Maximum number of trips to return
+     */
+    public Mono<List<TripDetails>> searchTripsByTitle(String ownerUid, String searchTerm, int limit) {
+        logger.debug("Searching trips by title: {}", searchTerm);
+        String query = searchTerm == null ? "" : SearchText.normalize(searchTerm);
+        if (query.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        String escaped = escapeLike(query);
+        return tripRepository.searchRanked(ownerUid, "%" + escaped + "%", escaped + "%", "% " + escaped + "%", limit)
+                .collectList()
+                .flatMapMany(this::withDestinations)
+                .collectList();
+    }
+
+    /**
+     * Get the version of the user's trip list
+     */
+    public Mono<TripService.TripListVersion> getTripListVersion(String ownerUid) {
+        return tripRepository.findListVersion(ownerUid);
+    }
+
+    /**
+     * Get the user's upcoming trips
+     */
+    public Mono<List<TripDetails>> getUpcomingTrips(String ownerUid) {
+        logger.debug("Fetching upcoming trips");
+        return withDestinations(tripRepository.findUpcomingTrips(ownerUid, LocalDate.now()));
+    }
+
+    /**
+     * Get the user's past trips
+     */
+    public Mono<List<TripDetails>> getPastTrips(String ownerUid) {
+        logger.debug("Fetching past trips");
+        return withDestinations(tripRepository.findPastTrips(ownerUid, LocalDate.now()));
+    }
+
+    /**
+     * Get the user's ongoing trips
+     */
+    public Mono<List<TripDetails>> getOngoingTrips(String ownerUid) {
+        logger.debug("Fetching ongoing trips");
+        return withDestinations(tripRepository.findOngoingTrips(ownerUid, LocalDate.now()));
+    }
+
+    /**
+     * Get statistics about the user's trips, from the same per-user, per-day cache as {@link TripService}
+     */
+    public Mono<TripService.TripStatistics> getTripStatistics(String ownerUid) {
+        LocalDate today = LocalDate.now();
+        return statisticsCache.getAsync(ownerUid, today, Mono.defer(() -> {
+            logger.debug("Calculating trip statistics for {}", today);
+            return tripRepository.countTripsByStatus(ownerUid, today);
+        }));
+    }
+
+    /**
+     * Find one of the user's trips
+     *
+     * @return The trip, or an error with TripNotFoundException
+     */
+    Mono<TripRow> findOwnedTrip(String ownerUid, Long id) {
+        return tripRepository.findByIdAndOwnerUid(id, ownerUid)
+                .switchIfEmpty(Mono.error(() -> {
+                    logger.warn("Trip not found with ID: {}", id);
+                    return new TripNotFoundException("Trip not found with ID: " + id);
+                }));
+    }
+
+    /**
+     * Insert a destination under an id drawn from destinations_seq
+     */
+    Mono<DestinationRow> insertDestination(DestinationRow destination) {
+        return destinationRepository.nextId()
+                .flatMap(id -> {
+                    destination.setId(id);
+                    return destinationRepository.save(destination);
+                });
+    }
+
+    private Mono<List<TripRow>> findPage(String ownerUid, TripCursor after, int limit) {
+        Flux<TripRow> page = after == null
+                ? tripRepository.findFirstPage(ownerUid, limit)
+                : tripRepository.findPageAfter(ownerUid, after.getStartDate(), after.getId(), limit);
+        return page.collectList().filter(trips -> !trips.isEmpty());
+    }
+
+    private Mono<List<TripDetails>> withDestinations(Flux<TripRow> trips) {
+        return trips.collectList().flatMapMany(this::withDestinations).collectList();
+    }
+
+    /**
+     * Attach the destinations of a batch of trips, loaded in one query
+     */
+    private Flux<TripDetails> withDestinations(List<TripRow> trips) {
+        if (trips.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Long> ids = trips.stream().map(TripRow::getId).toList();
+        return destinationRepository.findByTripIdIn(ids)
+                .collectMultimap(DestinationRow::getTripId)
+                .flatMapIterable(destinationsByTrip -> details(trips, destinationsByTrip));
+    }
+
+    private static List<TripDetails> details(List<TripRow> trips, Map<Long, Collection<DestinationRow>> destinationsByTrip) {
+        List<TripDetails> details = new ArrayList<>(trips.size());
+        for (TripRow trip : trips) {
+            Collection<DestinationRow> destinations = destinationsByTrip.get(trip.getId());
+            details.add(new TripDetails(trip, destinations != null ? List.copyOf(destinations) : List.of()));
+        }
+        return details;
+    }
+
+    /**
+     * Save the trip, reporting a clash on the unique title constraint as an invalid request
+     */
+    private Mono<TripRow> saveWithUniqueTitle(TripRow trip) {
+        return tripRepository.save(trip)
+                .onErrorMap(DataIntegrityViolationException.class, e -> {
+                    if (!isTitleConflict(e)) {
+                        return e;
+                    }
+                    logger.warn("Trip with title '{}' already exists", trip.getTitle());
+                    return new IllegalArgumentException("Trip with title '" + trip.getTitle() + "' already exists");
+                });
+    }
+
+    /**
+     * R2DBC drivers only report the violated constraint in their messages
+     */
+    private static boolean isTitleConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(Trip.TITLE_KEY_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * A trip with its destinations in itinerary order
+     */
+    public static class TripDetails {
+        private final TripRow trip;
+        private final List<DestinationRow> destinations;
+
+        public TripDetails(TripRow trip, List<DestinationRow> destinations) {
+            this.trip = trip;
+            this.destinations = destinations;
+        }
+
+        public TripRow getTrip() { return trip; }
+        public List<DestinationRow> getDestinations() { return destinations; }
+    }
+}
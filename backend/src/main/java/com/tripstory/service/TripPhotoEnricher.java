@@ -0,0 +1,121 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.DestinationPhoto;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.repository.TripRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches Unsplash photos for newly created trips in the background
+ *
+ * Lookups are queued only after the creating transaction commits and run on a
+ * small bounded pool, so a slow Unsplash response never holds a database
+ * connection. The result is patched onto the trip and reflected in its
+ * imageStatus, which becomes UNAVAILABLE when no photo can be had, so clients
+ * polling for the image always see it settle.
+ */
+@Service
+@Profile("!reactive")
+public class TripPhotoEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripPhotoEnricher.class);
+
+    private final UnsplashService unsplashService;
+    private final TripRepository tripRepository;
+    private final ThreadPoolExecutor executor;
+    private final TaskDecorator taskDecorator;
+
+    public TripPhotoEnricher(UnsplashService unsplashService,
+                             TripRepository tripRepository,
+                             TaskDecorator taskDecorator,
+                             @Value("${unsplash.enrichment.threads:2}") int threads,
+                             @Value("${unsplash.enrichment.queue-capacity:100}") int queueCapacity) {
+        this.unsplashService = unsplashService;
+        this.tripRepository = tripRepository;
+        this.taskDecorator = taskDecorator;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "trip-photo-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue a photo lookup for the trip once the current transaction commits
+     *
+     * @param tripId ID of the saved trip
+     * @param destination Destination name to search photos for
+     */
+    public void enrichAfterCommit(Long tripId, String destination) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(tripId, destination);
+                }
+            });
+        } else {
+            enqueue(tripId, destination);
+        }
+    }
+
+    private void enqueue(Long tripId, String destination) {
+        try {
+            // Keep the creating request's id on the enrichment's log lines
+            executor.execute(taskDecorator.decorate(() -> enrich(tripId, destination)));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Photo enrichment queue full, skipping trip {}", tripId);
+            markUnavailable(tripId);
+        }
+    }
+
+    private void enrich(Long tripId, String destination) {
+        try {
+            DestinationPhoto photo = unsplashService.getPhotoForDestination(destination);
+
+            if (photo != null && photo.hasImage()) {
+                tripRepository.updateImage(tripId, photo.getImageUrl(), photo.getImageAttribution(),
+                        ImageStatus.READY, LocalDateTime.now());
+                logger.info("Added Unsplash image for trip {}", tripId);
+            } else {
+                tripRepository.updateImage(tripId, null, null, ImageStatus.UNAVAILABLE, LocalDateTime.now());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Photo enrichment failed for trip {}", tripId, e);
+            markUnavailable(tripId);
+        }
+    }
+
+    private void markUnavailable(Long tripId) {
+        try {
+            tripRepository.updateImage(tripId, null, null, ImageStatus.UNAVAILABLE, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.error("Could not mark the image of trip {} unavailable", tripId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,187 @@
+package com.tripstory.service;
+
+import com.tripstory.util.SearchText;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over trip titles and notes
+ *
+ * Used for search when the database has no trigram index (H2 in development).
+ * Each trip's normalized "title notes" text is split into three-character grams,
+ * so a query only verifies the trips sharing all of its grams instead of
+ * scanning every trip. Ranking matches the database search: title prefix, then
+ * a word in the title, then anywhere in the title, then the notes.
+ */
+class TripSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    /**
+     * Add or replace the indexed text of a trip
+     */
+    void put(Long id, String title, String notes) {
+        Document document = new Document(normalize(title), normalize(notes));
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, document);
+            for (String gram : grams(document.text)) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the ids of the best matching trips, best match first
+     */
+    List<Long> search(String term, int limit) {
+        String query = normalize(term);
+        if (query.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                Document document = documents.get(id);
+                if (document != null && document.text.contains(query)) {
+                    matches.add(new Match(id, document.rank(query)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparingInt((Match match) -> match.rank)
+                        .thenComparing(match -> match.id, Comparator.reverseOrder()))
+                .limit(limit)
+                .map(match -> match.id)
+                .toList();
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            // Too short to have a gram; fall back to verifying every trip
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> candidates = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                candidates.add(id);
+            }
+        }
+        return candidates;
+    }
+
+    private void removeLocked(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous.text)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : SearchText.normalize(text);
+    }
+
+    private static final class Document {
+        private final String title;
+        private final String text;
+
+        private Document(String title, String notes) {
+            this.title = title;
+            this.text = notes.isEmpty() ? title : title + " " + notes;
+        }
+
+        private int rank(String query) {
+            if (title.startsWith(query)) {
+                return 0;
+            }
+            if (title.contains(" " + query)) {
+                return 1;
+            }
+            if (title.contains(query)) {
+                return 2;
+            }
+            return 3;
+        }
+    }
+
+    private static final class Match {
+        private final Long id;
+        private final int rank;
+
+        private Match(Long id, int rank) {
+            this.id = id;
+            this.rank = rank;
+        }
+    }
+}
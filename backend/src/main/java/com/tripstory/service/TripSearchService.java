@@ -0,0 +1,163 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.Trip;
+import com.tripstory.repository.TripRepository;
+import com.tripstory.repository.TripView;
+import com.tripstory.util.SearchText;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ranked search over trip titles and notes
+ *
+ * On PostgreSQL the search runs in the database against the pg_trgm GIN index
+ * created by the postgresql migrations.
+ * Elsewhere (H2 in development) it is answered from in-memory trigram indexes,
+ * one per owner, that are loaded at startup and updated after each committed write.
+ * Either way a search only considers the calling user's trips.
+ */
+@Service
+@Profile("!reactive")
+public class TripSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripSearchService.class);
+
+    private final TripRepository tripRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String backend;
+    private final ConcurrentHashMap<String, TripSearchIndex> indexes = new ConcurrentHashMap<>();
+    private volatile boolean inMemory;
+
+    public TripSearchService(TripRepository tripRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${trips.search.backend:auto}") String backend) {
+        this.tripRepository = tripRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backend = backend;
+    }
+
+    @PostConstruct
+    void init() {
+        inMemory = switch (backend.toLowerCase(Locale.ROOT)) {
+            case "memory" -> true;
+            case "database" -> false;
+            default -> !isPostgres();
+        };
+
+        if (inMemory) {
+            int count = 0;
+            for (TripRepository.TripSearchDocument document : tripRepository.findAllSearchDocuments()) {
+                if (document.getOwnerUid() != null) {
+                    indexFor(document.getOwnerUid()).put(document.getId(), document.getTitle(), document.getNotes());
+                    count++;
+                }
+            }
+            logger.info("Trip search using in-memory index ({} trips, {} owners)", count, indexes.size());
+        } else {
+            logger.info("Trip search using database trigram index");
+        }
+    }
+
+    /**
+     * Search the user's trips whose title or notes contain the term, best match first
+     *
+     * @param ownerUid Firebase uid of the calling user
+     * @param term Search term, matched case-insensitively as a substring
+     * @param limit Maximum number of trips to return
+     */
+    public List<TripView> search(String ownerUid, String term, int limit) {
+        String query = term == null ? "" : SearchText.normalize(term);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids;
+        if (inMemory) {
+            TripSearchIndex index = indexes.get(ownerUid);
+            ids = index != null ? index.search(query, limit) : List.of();
+        } else {
+            String escaped = escapeLike(query);
+            ids = tripRepository.searchRankedIds(ownerUid, "%" + escaped + "%", escaped + "%", "% " + escaped + "%", limit);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return tripRepository.findViewsByIdIn(ownerUid, ids).stream()
+                .sorted(Comparator.comparing(trip -> positions.get(trip.getId())))
+                .toList();
+    }
+
+    /**
+     * Index the trip's current title and notes once the current transaction commits
+     */
+    public void indexAfterCommit(Trip trip) {
+        if (inMemory) {
+            String ownerUid = trip.getOwnerUid();
+            Long id = trip.getId();
+            String title = trip.getTitle();
+            String notes = trip.getNotes();
+            afterCommit(() -> indexFor(ownerUid).put(id, title, notes));
+        }
+    }
+
+    /**
+     * Drop the trip from the index once the current transaction commits
+     */
+    public void removeAfterCommit(String ownerUid, Long tripId) {
+        if (inMemory) {
+            afterCommit(() -> indexFor(ownerUid).remove(tripId));
+        }
+    }
+
+    private TripSearchIndex indexFor(String ownerUid) {
+        return indexes.computeIfAbsent(ownerUid, key -> new TripSearchIndex());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (DataAccessException e) {
+            logger.warn("Could not determine database type, using in-memory trip search", e);
+            return false;
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,62 +1,155 @@
 package com.tripstory.service;
 
+import com.tripstory.entity.ImageStatus;
 import com.tripstory.entity.Trip;
 import com.tripstory.exception.TripNotFoundException;
+import com.tripstory.repository.TripDestinationName;
 import com.tripstory.repository.TripRepository;
+import com.tripstory.repository.TripView;
+import com.tripstory.util.TripConverter;
+import com.tripstory.util.TripCursor;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing Trip business logic
  * 
  * This service provides business logic for CRUD operations on trips,
  * including validation, error handling, and transaction management.
+ * 
+ * Every public method is timed under tripstory.service, tagged by class,
+ * method and exception.
+ * 
+ * Open-session-in-view is disabled, so methods serving API reads convert trips
+ * to their API model before the transaction ends; the connection is back in the
+ * pool before the response is written. List reads select {@link TripView}s and
+ * destination names instead of entities, so nothing is added to the persistence context.
  */
 @Service
 @Transactional
+@Timed(value = "tripstory.service", description = "Service method latency")
+@Profile("!reactive")
 public class TripService {
 
     private static final Logger logger = LoggerFactory.getLogger(TripService.class);
+    private static final int STREAM_CHUNK_SIZE = 50;
+    private static final int DESTINATION_BATCH_SIZE = 500;
 
     private final TripRepository tripRepository;
-    private final UnsplashService unsplashService;
+    private final TripPhotoEnricher tripPhotoEnricher;
+    private final TripSearchService tripSearchService;
+    private final TripConverter tripConverter;
+    private final TripStatisticsCache statisticsCache = new TripStatisticsCache();
 
     @Autowired
-    public TripService(TripRepository tripRepository, UnsplashService unsplashService) {
+    public TripService(TripRepository tripRepository, TripPhotoEnricher tripPhotoEnricher,
+                       TripSearchService tripSearchService, TripConverter tripConverter) {
         this.tripRepository = tripRepository;
-        this.unsplashService = unsplashService;
+        this.tripPhotoEnricher = tripPhotoEnricher;
+        this.tripSearchService = tripSearchService;
+        this.tripConverter = tripConverter;
     }
 
     /**
-     * Retrieve all trips ordered by start date (most recent first)
+     * Retrieve all of the user's trips ordered by start date (most recent first)
      */
     @Transactional(readOnly = true)
-    public List<Trip> getAllTrips() {
+    public List<com.tripstory.model.Trip> getAllTrips(String ownerUid) {
         logger.debug("Fetching all trips");
-        List<Trip> trips = tripRepository.findAllOrderByStartDateDesc();
-        logger.info("Found {} trips", trips.size());
-        return trips;
+        List<TripView> trips = tripRepository.findAllViewsOrderByStartDateDesc(ownerUid);
+        logger.debug("Found {} trips", trips.size());
+        return toModels(trips);
+    }
+
+    /**
+     * Retrieve one page of the user's trips in keyset order
+     * 
+     * @param ownerUid Firebase uid of the calling user
+     * @param after Cursor of the last trip of the previous page, or null for the first page
+     * @param limit Maximum number of trips to return
+     */
+    @Transactional(readOnly = true)
+    public List<com.tripstory.model.Trip> getTripsPage(String ownerUid, TripCursor after, int limit) {
+        logger.debug("Fetching trips page after {} (limit {})", after != null ? after.encode() : null, limit);
+        PageRequest page = PageRequest.of(0, limit);
+        List<TripView> trips = after == null
+                ? tripRepository.findFirstPage(ownerUid, page)
+                : tripRepository.findPageAfter(ownerUid, after.getStartDate(), after.getId(), page);
+        return toModels(trips);
+    }
+
+    /**
+     * Stream the user's trips in keyset order to the given consumer as they are read from the database
+     * 
+     * Trips are read as views and converted in chunks of {@value #STREAM_CHUNK_SIZE}, so
+     * memory stays flat regardless of table size while destination names are read for
+     * a whole chunk at a time.
+     * 
+     * @param ownerUid Firebase uid of the calling user
+     * @param after Cursor to resume after, or null to start from the beginning
+     * @param limit Maximum number of trips to emit, or null for no limit
+     * @param consumer Callback receiving each converted trip while the transaction is still open
+     */
+    @Transactional(readOnly = true)
+    public void streamTrips(String ownerUid, TripCursor after, Integer limit,
+                            Consumer<com.tripstory.model.Trip> consumer) {
+        logger.debug("Streaming trips after {}", after != null ? after.encode() : null);
+        try (Stream<TripView> trips = after == null
+                ? tripRepository.streamAllOrderByStartDateDesc(ownerUid)
+                : tripRepository.streamAfter(ownerUid, after.getStartDate(), after.getId())) {
+            Stream<TripView> bounded = limit != null ? trips.limit(limit) : trips;
+            List<TripView> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            bounded.forEach(trip -> {
+                chunk.add(trip);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    consumeChunk(chunk, consumer);
+                }
+            });
+            consumeChunk(chunk, consumer);
+        }
+    }
+
+    private void consumeChunk(List<TripView> chunk, Consumer<com.tripstory.model.Trip> consumer) {
+        toModels(chunk).forEach(consumer);
+        chunk.clear();
     }
 
     /**
-     * Retrieve a trip by its ID
+     * Retrieve one of the user's trips by its ID
      * 
+     * @param ownerUid Firebase uid of the calling user
      * @param id The trip ID
      * @return The trip if found
-     * @throws TripNotFoundException if trip is not found
+     * @throws TripNotFoundException if trip is not found or belongs to another user
      */
     @Transactional(readOnly = true)
-    public Trip getTripById(Long id) {
+    public Trip getTripById(String ownerUid, Long id) {
         logger.debug("Fetching trip with ID: {}", id);
         
+        // Looked up by primary key so the second-level cache can answer it
         return tripRepository.findById(id)
+                .filter(trip -> ownerUid.equals(trip.getOwnerUid()))
                 .orElseThrow(() -> {
                     logger.warn("Trip not found with ID: {}", id);
                     return new TripNotFoundException("Trip not found with ID: " + id);
@@ -64,52 +157,88 @@ public class TripService {
     }
 
     /**
-     * Create a new trip
+     * Get the version and modification time of one of the user's trips
+     * 
+     * Lets a client's cached copy be revalidated without converting the trip
+     * or loading its destinations.
+     * 
+     * @throws TripNotFoundException if trip is not found or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public TripVersion getTripVersion(String ownerUid, Long id) {
+        Trip trip = getTripById(ownerUid, id);
+        return new TripVersion(trip.getVersion(), trip.getUpdatedAt());
+    }
+
+    /**
+     * Retrieve one of the user's trips converted for the API, with the version its ETag is derived from
+     * 
+     * @throws TripNotFoundException if trip is not found or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public VersionedTrip getTrip(String ownerUid, Long id) {
+        return toVersionedTrip(getTripById(ownerUid, id));
+    }
+
+    /**
+     * Retrieve the destinations of one of the user's trips in itinerary order, converted for the API
+     * 
+     * @throws TripNotFoundException if trip is not found or belongs to another user
+     */
+    @Transactional(readOnly = true)
+    public List<com.tripstory.model.Destination> getTripDestinations(String ownerUid, Long id) {
+        return getTripById(ownerUid, id).getDestinations().stream()
+                .map(tripConverter::toModel)
+                .toList();
+    }
+
+    /**
+     * Create a new trip owned by the user
      * 
+     * @param ownerUid Firebase uid of the calling user
      * @param trip The trip to create
      * @return The created trip with generated ID
      * @throws IllegalArgumentException if trip data is invalid
      */
-    public Trip createTrip(Trip trip) {
+    public VersionedTrip createTrip(String ownerUid, Trip trip) {
         logger.debug("Creating new trip: {}", trip.getTitle());
         
         validateTrip(trip);
+        trip.setOwnerUid(ownerUid);
         
-        // Check for duplicate title
-        if (trip.getTitle() != null && tripRepository.existsByTitleIgnoreCase(trip.getTitle())) {
-            logger.warn("Trip with title '{}' already exists", trip.getTitle());
-            throw new IllegalArgumentException("Trip with title '" + trip.getTitle() + "' already exists");
-        }
+        // Photo lookup happens after commit so Unsplash latency never holds a connection
+        String photoDestination = trip.getDestinations().isEmpty()
+                ? null : trip.getDestinations().get(0).getName();
+        trip.setImageStatus(photoDestination != null ? ImageStatus.PENDING : ImageStatus.UNAVAILABLE);
         
-        // Fetch image from Unsplash if destinations exist
-        if (!trip.getDestinations().isEmpty()) {
-            String firstDestination = trip.getDestinations().get(0).getName();
-            UnsplashService.UnsplashPhoto photo = unsplashService.fetchPhotoForDestination(firstDestination);
-            
-            if (photo != null && photo.urls != null && photo.user != null) {
-                trip.setImageUrl(photo.urls.regular);
-                trip.setImageAttribution("Photo by " + photo.user.name + " on Unsplash");
-                logger.info("Added Unsplash image for trip: {}", trip.getTitle());
-            }
+        Trip savedTrip = saveWithUniqueTitle(trip);
+        statisticsCache.invalidate(ownerUid);
+        tripSearchService.indexAfterCommit(savedTrip);
+        if (photoDestination != null) {
+            tripPhotoEnricher.enrichAfterCommit(savedTrip.getId(), photoDestination);
         }
-        
-        Trip savedTrip = tripRepository.save(trip);
         logger.info("Successfully created trip with ID: {}", savedTrip.getId());
-        return savedTrip;
+        return toVersionedTrip(savedTrip);
     }
 
     /**
-     * Update an existing trip
+     * Update one of the user's trips
      * 
+     * @param ownerUid Firebase uid of the calling user
      * @param id The ID of the trip to update
-     * @param updatedTrip The updated trip data
+     * @param updatedTrip The fields to change; null fields are left as they are
+     * @param expectedVersion Version the change was based on, or null to apply it to any version
      * @return The updated trip
      * @throws TripNotFoundException if trip is not found
+     * @throws OptimisticLockingFailureException if the trip no longer has the expected version
      */
-    public Trip updateTrip(Long id, Trip updatedTrip) {
+    public VersionedTrip updateTrip(String ownerUid, Long id, Trip updatedTrip, Long expectedVersion) {
         logger.debug("Updating trip with ID: {}", id);
         
-        Trip existingTrip = getTripById(id);
+        Trip existingTrip = getTripById(ownerUid, id);
+        if (expectedVersion != null && !expectedVersion.equals(existingTrip.getVersion())) {
+            throw new OptimisticLockingFailureException("Trip " + id + " was modified concurrently");
+        }
         
         // Validate updated data
         if (updatedTrip.getTitle() != null || updatedTrip.getStartDate() != null || 
@@ -117,89 +246,160 @@ public class TripService {
             validateTripUpdate(updatedTrip, existingTrip);
         }
         
-        // Check for duplicate title (excluding current trip)
-        if (updatedTrip.getTitle() != null && 
-            !updatedTrip.getTitle().equalsIgnoreCase(existingTrip.getTitle()) &&
-            tripRepository.existsByTitleIgnoreCase(updatedTrip.getTitle())) {
-            logger.warn("Trip with title '{}' already exists", updatedTrip.getTitle());
-            throw new IllegalArgumentException("Trip with title '" + updatedTrip.getTitle() + "' already exists");
-        }
-        
         existingTrip.updateFrom(updatedTrip);
-        Trip savedTrip = tripRepository.save(existingTrip);
+        Trip savedTrip = saveWithUniqueTitle(existingTrip);
+        statisticsCache.invalidate(ownerUid);
+        tripSearchService.indexAfterCommit(savedTrip);
         logger.info("Successfully updated trip with ID: {}", savedTrip.getId());
-        return savedTrip;
+        return toVersionedTrip(savedTrip);
     }
 
     /**
-     * Delete a trip by its ID
+     * Delete one of the user's trips by its ID
      * 
+     * @param ownerUid Firebase uid of the calling user
      * @param id The ID of the trip to delete
      * @throws TripNotFoundException if trip is not found
      */
-    public void deleteTrip(Long id) {
+    public void deleteTrip(String ownerUid, Long id) {
         logger.debug("Deleting trip with ID: {}", id);
         
-        Trip trip = getTripById(id); // This will throw exception if not found
+        Trip trip = getTripById(ownerUid, id); // This will throw exception if not found
         tripRepository.delete(trip);
+        statisticsCache.invalidate(ownerUid);
+        tripSearchService.removeAfterCommit(ownerUid, id);
         logger.info("Successfully deleted trip with ID: {}", id);
     }
 
     /**
-     * Search trips by title
+     * Search the user's trips by title and notes, best match first
+     * 
+     * @param ownerUid Firebase uid of the calling user
+     * @param searchTerm Term matched case-insensitively anywhere in the title or notes
+     * @param limit Maximum number of trips to return
      */
     @Transactional(readOnly = true)
-    public List<Trip> searchTripsByTitle(String searchTerm) {
+    public List<com.tripstory.model.Trip> searchTripsByTitle(String ownerUid, String searchTerm, int limit) {
         logger.debug("Searching trips by title: {}", searchTerm);
-        return tripRepository.findByTitleContainingIgnoreCase(searchTerm);
+        return toModels(tripSearchService.search(ownerUid, searchTerm, limit));
+    }
+
+    /**
+     * Get the version of the user's trip list
+     * 
+     * Any create, update or delete changes the count or the latest modification
+     * time, so clients can revalidate the list without fetching it.
+     */
+    @Transactional(readOnly = true)
+    public TripListVersion getTripListVersion(String ownerUid) {
+        TripRepository.TripListVersion version = tripRepository.findListVersion(ownerUid);
+        return new TripListVersion(version.getCount(), version.getLastUpdatedAt());
     }
 
     /**
-     * Get upcoming trips
+     * Get the user's upcoming trips
      */
     @Transactional(readOnly = true)
-    public List<Trip> getUpcomingTrips() {
+    public List<com.tripstory.model.Trip> getUpcomingTrips(String ownerUid) {
         logger.debug("Fetching upcoming trips");
-        return tripRepository.findUpcomingTrips();
+        return toModels(tripRepository.findUpcomingTripViews(ownerUid, LocalDate.now()));
     }
 
     /**
-     * Get past trips
+     * Get the user's past trips
      */
     @Transactional(readOnly = true)
-    public List<Trip> getPastTrips() {
+    public List<com.tripstory.model.Trip> getPastTrips(String ownerUid) {
         logger.debug("Fetching past trips");
-        return tripRepository.findPastTrips();
+        return toModels(tripRepository.findPastTripViews(ownerUid, LocalDate.now()));
     }
 
     /**
-     * Get ongoing trips
+     * Get the user's ongoing trips
      */
     @Transactional(readOnly = true)
-    public List<Trip> getOngoingTrips() {
+    public List<com.tripstory.model.Trip> getOngoingTrips(String ownerUid) {
         logger.debug("Fetching ongoing trips");
-        return tripRepository.findOngoingTrips();
+        return toModels(tripRepository.findOngoingTripViews(ownerUid, LocalDate.now()));
     }
 
     /**
-     * Get trip statistics
+     * Get statistics about the user's trips
+     * 
+     * Served from a per-user, per-day cache that is invalidated on every trip write, so only
+     * the first call after a change (or after midnight) touches the database.
+     * Runs without a transaction so cache hits never borrow a pooled connection.
      */
-    @Transactional(readOnly = true)
-    public TripStatistics getTripStatistics() {
-        logger.debug("Calculating trip statistics");
-        
-        long total = tripRepository.count();
-        long upcoming = tripRepository.countUpcomingTrips();
-        long ongoing = tripRepository.countOngoingTrips();
-        long past = tripRepository.countPastTrips();
-        
-        return new TripStatistics(total, upcoming, ongoing, past);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TripStatistics getTripStatistics(String ownerUid) {
+        LocalDate today = LocalDate.now();
+        return statisticsCache.get(ownerUid, today, () -> {
+            logger.debug("Calculating trip statistics for {}", today);
+            TripRepository.TripStatusCounts counts = tripRepository.countTripsByStatus(ownerUid, today);
+            return new TripStatistics(counts.getTotal(), counts.getUpcoming(), counts.getOngoing(), counts.getPast());
+        });
+    }
+
+    private List<com.tripstory.model.Trip> toModels(List<TripView> trips) {
+        Map<Long, List<String>> destinationNames = findDestinationNames(trips);
+        return trips.stream()
+                .map(trip -> tripConverter.toModel(trip, destinationNames.getOrDefault(trip.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Destination names of the given trips in itinerary order, keyed by trip id
+     * Read with one query per {@value #DESTINATION_BATCH_SIZE} trips
+     */
+    private Map<Long, List<String>> findDestinationNames(List<TripView> trips) {
+        Map<Long, List<String>> names = new HashMap<>();
+        List<Long> ids = trips.stream().map(TripView::getId).toList();
+        for (int from = 0; from < ids.size(); from += DESTINATION_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + DESTINATION_BATCH_SIZE, ids.size()));
+            for (TripDestinationName name : tripRepository.findDestinationNames(batch)) {
+                names.computeIfAbsent(name.getTripId(), id -> new ArrayList<>()).add(name.getName());
+            }
+        }
+        return names;
+    }
+
+    private VersionedTrip toVersionedTrip(Trip trip) {
+        return new VersionedTrip(tripConverter.toModel(trip), trip.getVersion());
+    }
+
+    /**
+     * Save and flush the trip, reporting a clash on the unique title constraint
+     * as an invalid request
+     * 
+     * @throws IllegalArgumentException if another trip already has the same title ignoring case
+     */
+    private Trip saveWithUniqueTitle(Trip trip) {
+        try {
+            return tripRepository.saveAndFlush(trip);
+        } catch (DataIntegrityViolationException e) {
+            if (!isTitleConflict(e)) {
+                throw e;
+            }
+            logger.warn("Trip with title '{}' already exists", trip.getTitle());
+            throw new IllegalArgumentException("Trip with title '" + trip.getTitle() + "' already exists");
+        }
+    }
+
+    private static boolean isTitleConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Trip.TITLE_KEY_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Validate trip data
      */
-    private void validateTrip(Trip trip) {
+    static void validateTrip(Trip trip) {
         if (trip == null) {
             throw new IllegalArgumentException("Trip cannot be null");
         }
@@ -216,14 +416,7 @@ public class TripService {
             throw new IllegalArgumentException("Trip end date is required");
         }
         
-        if (trip.getEndDate().isBefore(trip.getStartDate())) {
-            throw new IllegalArgumentException("Trip end date cannot be before start date");
-        }
-        
-        // Business rule: trips cannot be longer than 1 year
-        if (trip.getStartDate().plusYears(1).isBefore(trip.getEndDate())) {
-            throw new IllegalArgumentException("Trip duration cannot exceed 1 year");
-        }
+        validateDates(trip.getStartDate(), trip.getEndDate());
     }
 
     /**
@@ -235,10 +428,18 @@ public class TripService {
         LocalDate endDate = updatedTrip.getEndDate() != null ? 
             updatedTrip.getEndDate() : existingTrip.getEndDate();
         
+        validateDates(startDate, endDate);
+    }
+
+    /**
+     * Validate the date range of a trip
+     */
+    static void validateDates(LocalDate startDate, LocalDate endDate) {
         if (endDate.isBefore(startDate)) {
             throw new IllegalArgumentException("Trip end date cannot be before start date");
         }
         
+        // Business rule: trips cannot be longer than 1 year
         if (startDate.plusYears(1).isBefore(endDate)) {
             throw new IllegalArgumentException("Trip duration cannot exceed 1 year");
         }
@@ -265,4 +466,52 @@ public class TripService {
         public long getOngoing() { return ongoing; }
         public long getPast() { return past; }
     }
+
+    /**
+     * A trip converted for the API, with the version its ETag is derived from
+     */
+    public static class VersionedTrip {
+        private final com.tripstory.model.Trip trip;
+        private final Long version;
+
+        public VersionedTrip(com.tripstory.model.Trip trip, Long version) {
+            this.trip = trip;
+            this.version = version;
+        }
+
+        public com.tripstory.model.Trip getTrip() { return trip; }
+        public Long getVersion() { return version; }
+    }
+
+    /**
+     * Inner class for the version of a single trip
+     */
+    public static class TripVersion {
+        private final Long version;
+        private final LocalDateTime updatedAt;
+
+        public TripVersion(Long version, LocalDateTime updatedAt) {
+            this.version = version;
+            this.updatedAt = updatedAt;
+        }
+
+        public Long getVersion() { return version; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+
+    /**
+     * Inner class for the version of a user's trip list
+     */
+    public static class TripListVersion {
+        private final long count;
+        private final LocalDateTime lastUpdatedAt;
+
+        public TripListVersion(long count, LocalDateTime lastUpdatedAt) {
+            this.count = count;
+            this.lastUpdatedAt = lastUpdatedAt;
+        }
+
+        public long getCount() { return count; }
+        public LocalDateTime getLastUpdatedAt() { return lastUpdatedAt; }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.tripstory.service;
+
+import com.tripstory.util.ExpiringLruCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache for trip statistics, one entry per owner
+ *
+ * Entries are bucketed by calendar day, so the cached counts roll over at midnight
+ * when the upcoming/ongoing/past buckets shift. A write drops its owner's entry
+ * both immediately and after its transaction completes, and bumps a generation
+ * counter so a load that raced any write is never stored. On the reactive stack,
+ * where there is no transaction synchronization, writers invalidate once their
+ * transaction has committed.
+ */
+class TripStatisticsCache {
+
+    private static final int MAX_OWNERS = 10000;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ExpiringLruCache<String, Entry> entries =
+            new ExpiringLruCache<>(MAX_OWNERS, TimeUnit.DAYS.toMillis(1));
+
+    /**
+     * Return the owner's cached statistics for the given day, loading them on a miss
+     */
+    TripService.TripStatistics get(String ownerUid, LocalDate day, Supplier<TripService.TripStatistics> loader) {
+        Entry current = entries.get(ownerUid);
+        if (current != null && current.day.equals(day)) {
+            return current.statistics;
+        }
+
+        long currentGeneration = generation.get();
+        TripService.TripStatistics statistics = loader.get();
+        if (generation.get() == currentGeneration) {
+            entries.put(ownerUid, new Entry(day, statistics));
+        }
+        return statistics;
+    }
+
+    /**
+     * Return the owner's cached statistics for the given day, subscribing to the loader on a miss
+     */
+    Mono<TripService.TripStatistics> getAsync(String ownerUid, LocalDate day,
+                                              Mono<TripService.TripStatistics> loader) {
+        return Mono.defer(() -> {
+            Entry current = entries.get(ownerUid);
+            if (current != null && current.day.equals(day)) {
+                return Mono.just(current.statistics);
+            }
+
+            long currentGeneration = generation.get();
+            return loader.doOnNext(statistics -> {
+                if (generation.get() == currentGeneration) {
+                    entries.put(ownerUid, new Entry(day, statistics));
+                }
+            });
+        });
+    }
+
+    /**
+     * Invalidate the owner's cached statistics after one of their trips was created, updated or deleted
+     */
+    void invalidate(String ownerUid) {
+        entries.invalidate(ownerUid);
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.invalidate(ownerUid);
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static final class Entry {
+        private final LocalDate day;
+        private final TripService.TripStatistics statistics;
+
+        private Entry(LocalDate day, TripService.TripStatistics statistics) {
+            this.day = day;
+            this.statistics = statistics;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.tripstory.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tripstory.entity.DestinationPhoto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking client for the Unsplash photo search API
+ * 
+ * Shared by {@link UnsplashService} on the servlet stack, which blocks on the
+ * result from a background thread, and {@link ReactiveTripPhotoEnricher}, which
+ * composes it. Calls are timed under tripstory.unsplash.requests by outcome.
+ */
+@Component
+public class UnsplashClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnsplashClient.class);
+    private static final String UNSPLASH_API_URL = "https://api.unsplash.com";
+
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${unsplash.api.access-key:demo}")
+    private String accessKey;
+
+    public UnsplashClient(MeterRegistry meterRegistry,
+                          @Value("${unsplash.api.base-url:" + UNSPLASH_API_URL + "}") String baseUrl) {
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Search Unsplash for a landscape travel photo of the destination
+     * @return The first result, or an empty Mono if there are none
+     */
+    public Mono<UnsplashPhoto> searchPhoto(String destination) {
+        return Mono.defer(() -> {
+            logger.debug("Fetching photo for destination: {}", destination);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/search/photos")
+                            .queryParam("query", destination + " travel")
+                            .queryParam("per_page", 1)
+                            .queryParam("orientation", "landscape")
+                            .build())
+                    .header("Authorization", "Client-ID " + accessKey)
+                    .retrieve()
+                    .bodyToMono(UnsplashSearchResponse.class)
+                    .doOnError(e -> sample.stop(requestTimer("error")))
+                    .flatMap(response -> {
+                        if (response.results != null && !response.results.isEmpty()) {
+                            sample.stop(requestTimer("success"));
+                            logger.debug("Successfully fetched photo for destination: {}", destination);
+                            return Mono.just(response.results.get(0));
+                        }
+                        return Mono.empty();
+                    })
+                    .switchIfEmpty(Mono.fromRunnable(() -> {
+                        sample.stop(requestTimer("no_results"));
+                        logger.debug("No photos found for destination: {}", destination);
+                    }));
+        });
+    }
+
+    /**
+     * Record the result of a search for the destination, or that there was none
+     *
+     * @param photo The search result, or null if Unsplash had no photo
+     */
+    static DestinationPhoto toDestinationPhoto(String destinationKey, UnsplashPhoto photo) {
+        return photo != null && photo.urls != null && photo.user != null
+                ? new DestinationPhoto(destinationKey, photo.urls.regular,
+                        "Photo by " + photo.user.name + " on Unsplash", LocalDateTime.now())
+                : new DestinationPhoto(destinationKey, null, null, LocalDateTime.now());
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("tripstory.unsplash.requests")
+                .description("Unsplash photo search latency")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UnsplashSearchResponse {
+        @JsonProperty("results")
+        public List<UnsplashPhoto> results;
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UnsplashPhoto {
+        @JsonProperty("id")
+        public String id;
+        
+        @JsonProperty("urls")
+        public UnsplashUrls urls;
+        
+        @JsonProperty("user")
+        public UnsplashUser user;
+        
+        @JsonProperty("links")
+        public UnsplashLinks links;
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UnsplashUrls {
+        @JsonProperty("small")
+        public String small;
+        
+        @JsonProperty("regular")
+        public String regular;
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UnsplashUser {
+        @JsonProperty("name")
+        public String name;
+        
+        @JsonProperty("username")
+        public String username;
+    }
+    
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class UnsplashLinks {
+        @JsonProperty("html")
+        public String html;
+    }
+}
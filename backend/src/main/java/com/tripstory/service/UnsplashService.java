@@ -1,102 +1,115 @@
 package com.tripstory.service;
 
+import com.tripstory.entity.DestinationPhoto;
+import com.tripstory.repository.DestinationPhotoRepository;
+import com.tripstory.util.ExpiringLruCache;
+import com.tripstory.util.RateLimitedLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Destination photos from the Unsplash API
+ * 
+ * Lookups are counted under tripstory.unsplash.lookups by the tier that answered
+ * them; the API calls themselves go through {@link UnsplashClient}.
+ */
 @Service
+@Profile("!reactive")
 public class UnsplashService {
     
     private static final Logger logger = LoggerFactory.getLogger(UnsplashService.class);
-    private static final String UNSPLASH_API_URL = "https://api.unsplash.com";
-    
-    private final WebClient webClient;
+    // Rate limits and outages fail every lookup at once; keep a sample of them with stack traces
+    private static final RateLimitedLog fetchErrorLog = new RateLimitedLog(logger, 5, 60_000);
     
-    @Value("${unsplash.api.access-key:demo}")
-    private String accessKey;
+    private final UnsplashClient unsplashClient;
+    private final DestinationPhotoRepository destinationPhotoRepository;
+    private final ExpiringLruCache<String, DestinationPhoto> photoCache;
+    private final long photoMaxAgeDays;
+    private final long missingPhotoMaxAgeDays;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter apiLookups;
+    private final Counter unavailableLookups;
     
-    public UnsplashService() {
-        this.webClient = WebClient.builder()
-                .baseUrl(UNSPLASH_API_URL)
-                .build();
+    public UnsplashService(DestinationPhotoRepository destinationPhotoRepository,
+                           UnsplashClient unsplashClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${unsplash.cache.max-entries:1000}") int cacheMaxEntries,
+                           @Value("${unsplash.cache.photo-max-age-days:30}") long photoMaxAgeDays,
+                           @Value("${unsplash.cache.missing-photo-max-age-days:1}") long missingPhotoMaxAgeDays) {
+        this.unsplashClient = unsplashClient;
+        this.destinationPhotoRepository = destinationPhotoRepository;
+        this.photoCache = new ExpiringLruCache<>(cacheMaxEntries, TimeUnit.HOURS.toMillis(1));
+        this.photoMaxAgeDays = photoMaxAgeDays;
+        this.missingPhotoMaxAgeDays = missingPhotoMaxAgeDays;
+        this.memoryHits = lookupCounter(meterRegistry, "memory");
+        this.databaseHits = lookupCounter(meterRegistry, "database");
+        this.apiLookups = lookupCounter(meterRegistry, "api");
+        this.unavailableLookups = lookupCounter(meterRegistry, "unavailable");
     }
-    
-    public UnsplashPhoto fetchPhotoForDestination(String destination) {
+
+    static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("tripstory.unsplash.lookups")
+                .description("Destination photo lookups by the tier that answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the photo for a destination, consulting the in-process LRU and the
+     * destination_photos table before calling Unsplash
+     *
+     * @return The cached or freshly fetched photo (which may record that none exists),
+     *         or null if Unsplash could not be reached
+     */
+    public DestinationPhoto getPhotoForDestination(String destination) {
+        String destinationKey = MapboxService.normalizeQuery(destination);
+
+        DestinationPhoto cached = photoCache.get(destinationKey);
+        if (cached != null && isFresh(cached)) {
+            memoryHits.increment();
+            return cached;
+        }
+
+        DestinationPhoto stored = destinationPhotoRepository.findById(destinationKey).orElse(null);
+        if (stored != null && isFresh(stored)) {
+            photoCache.put(destinationKey, stored);
+            databaseHits.increment();
+            return stored;
+        }
+
+        UnsplashClient.UnsplashPhoto photo;
         try {
-            logger.info("Fetching photo for destination: {}", destination);
-            
-            UnsplashSearchResponse response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/search/photos")
-                            .queryParam("query", destination + " travel")
-                            .queryParam("per_page", 1)
-                            .queryParam("orientation", "landscape")
-                            .build())
-                    .header("Authorization", "Client-ID " + accessKey)
-                    .retrieve()
-                    .bodyToMono(UnsplashSearchResponse.class)
-                    .block();
-            
-            if (response != null && response.results != null && !response.results.isEmpty()) {
-                UnsplashPhoto photo = response.results.get(0);
-                logger.info("Successfully fetched photo for destination: {}", destination);
-                return photo;
-            } else {
-                logger.warn("No photos found for destination: {}", destination);
-                return null;
-            }
+            photo = unsplashClient.searchPhoto(destination).block();
         } catch (Exception e) {
-            logger.error("Error fetching photo for destination: {}", destination, e);
-            return null;
+            fetchErrorLog.error("Error fetching photo for destination: {}", destination, e);
+            unavailableLookups.increment();
+            return stored;
         }
+
+        DestinationPhoto fetched = UnsplashClient.toDestinationPhoto(destinationKey, photo);
+        try {
+            destinationPhotoRepository.save(fetched);
+        } catch (DataIntegrityViolationException e) {
+            // Another worker stored the same destination concurrently
+            logger.debug("Photo for {} already stored", destinationKey);
+        }
+        photoCache.put(destinationKey, fetched);
+        apiLookups.increment();
+        return fetched;
     }
     
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class UnsplashSearchResponse {
-        @JsonProperty("results")
-        public java.util.List<UnsplashPhoto> results;
-    }
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class UnsplashPhoto {
-        @JsonProperty("id")
-        public String id;
-        
-        @JsonProperty("urls")
-        public UnsplashUrls urls;
-        
-        @JsonProperty("user")
-        public UnsplashUser user;
-        
-        @JsonProperty("links")
-        public UnsplashLinks links;
-    }
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class UnsplashUrls {
-        @JsonProperty("small")
-        public String small;
-        
-        @JsonProperty("regular")
-        public String regular;
-    }
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class UnsplashUser {
-        @JsonProperty("name")
-        public String name;
-        
-        @JsonProperty("username")
-        public String username;
-    }
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public static class UnsplashLinks {
-        @JsonProperty("html")
-        public String html;
+    private boolean isFresh(DestinationPhoto photo) {
+        long maxAgeDays = photo.hasImage() ? photoMaxAgeDays : missingPhotoMaxAgeDays;
+        return photo.getFetchedAt().plusDays(maxAgeDays).isAfter(LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.tripstory.util;
+
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Logs at most a fixed number of events per interval for one kind of per-request event
+ *
+ * Events beyond the budget are counted instead of written, and the count is
+ * appended to the next event that gets through, so a burst of bad tokens or
+ * upstream failures costs one line per interval rather than one per request.
+ */
+public class RateLimitedLog {
+
+    private final Logger logger;
+    private final int maxPerInterval;
+    private final long intervalMillis;
+
+    private long windowStart;
+    private int loggedInWindow;
+    private long suppressed;
+
+    public RateLimitedLog(Logger logger, int maxPerInterval, long intervalMillis) {
+        if (maxPerInterval < 1) {
+            throw new IllegalArgumentException("maxPerInterval must be at least 1");
+        }
+        this.logger = logger;
+        this.maxPerInterval = maxPerInterval;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (logger.isWarnEnabled()) {
+            long skipped = acquire();
+            if (skipped >= 0) {
+                logger.warn(withSuppressed(format, skipped), withSuppressed(arguments, skipped));
+            }
+        }
+    }
+
+    public void error(String format, Object... arguments) {
+        if (logger.isErrorEnabled()) {
+            long skipped = acquire();
+            if (skipped >= 0) {
+                logger.error(withSuppressed(format, skipped), withSuppressed(arguments, skipped));
+            }
+        }
+    }
+
+    /**
+     * Take a slot in the current interval
+     *
+     * @return Events suppressed since the last one logged, or -1 if this one is suppressed too
+     */
+    private synchronized long acquire() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= intervalMillis) {
+            windowStart = now;
+            loggedInWindow = 0;
+        }
+        if (loggedInWindow >= maxPerInterval) {
+            suppressed++;
+            return -1;
+        }
+        loggedInWindow++;
+        long skipped = suppressed;
+        suppressed = 0;
+        return skipped;
+    }
+
+    private static String withSuppressed(String format, long skipped) {
+        return skipped > 0 ? format + " ({} similar messages suppressed)" : format;
+    }
+
+    /**
+     * Insert the suppressed count ahead of a trailing exception so SLF4J still logs its stack trace
+     */
+    private static Object[] withSuppressed(Object[] arguments, long skipped) {
+        if (skipped == 0) {
+            return arguments;
+        }
+        int length = arguments.length;
+        boolean trailingThrowable = length > 0 && arguments[length - 1] instanceof Throwable;
+        Object[] result = Arrays.copyOf(arguments, length + 1);
+        if (trailingThrowable) {
+            result[length - 1] = skipped;
+            result[length] = arguments[length - 1];
+        } else {
+            result[length] = skipped;
+        }
+        return result;
+    }
+}
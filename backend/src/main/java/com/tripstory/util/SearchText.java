@@ -0,0 +1,23 @@
+package com.tripstory.util;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normal form in which trip search terms and the text they search are compared
+ *
+ * Lowercased and trimmed, with every run of whitespace folded to one space. The
+ * database applies the same folding to the searched text through its
+ * trip_search_text function, which on H2 is this method itself.
+ */
+public final class SearchText {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchText() {
+    }
+
+    public static String normalize(String text) {
+        return text == null ? null : WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,12 +2,19 @@ package com.tripstory.util;
 
 import com.tripstory.entity.Trip;
 import com.tripstory.entity.Destination;
+import com.tripstory.entity.DestinationRow;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.TripRow;
+import com.tripstory.model.CreateDestinationRequest;
 import com.tripstory.model.CreateTripRequest;
+import com.tripstory.model.UpdateDestinationRequest;
 import com.tripstory.model.UpdateTripRequest;
+import com.tripstory.repository.TripView;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
 
 @Component
 public class TripConverter {
@@ -25,6 +32,8 @@ public class TripConverter {
         model.setNotes(entity.getNotes());
         model.setImageUrl(entity.getImageUrl());
         model.setImageAttribution(entity.getImageAttribution());
+        model.setImageStatus(toModelImageStatus(entity.getImageStatus(), entity.getImageUrl()));
+        model.setDestinationSummary(entity.getDestinationSummary());
         
         if (entity.getCreatedAt() != null) {
             model.setCreatedAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC));
@@ -36,6 +45,126 @@ public class TripConverter {
         return model;
     }
     
+    /**
+     * Convert a trip read on the reactive stack, with its destinations in itinerary order
+     */
+    public com.tripstory.model.Trip toModel(TripRow row, List<DestinationRow> destinations) {
+        if (row == null) {
+            return null;
+        }
+        
+        com.tripstory.model.Trip model = new com.tripstory.model.Trip();
+        model.setId(row.getId());
+        model.setTitle(row.getTitle());
+        model.setStartDate(row.getStartDate());
+        model.setEndDate(row.getEndDate());
+        model.setNotes(row.getNotes());
+        model.setImageUrl(row.getImageUrl());
+        model.setImageAttribution(row.getImageAttribution());
+        model.setImageStatus(toModelImageStatus(row.getImageStatus(), row.getImageUrl()));
+        model.setDestinationSummary(Trip.summarizeDestinations(
+                destinations.stream().map(DestinationRow::getName).toList()));
+        
+        if (row.getCreatedAt() != null) {
+            model.setCreatedAt(row.getCreatedAt().atOffset(ZoneOffset.UTC));
+        }
+        if (row.getUpdatedAt() != null) {
+            model.setUpdatedAt(row.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        }
+        
+        return model;
+    }
+    
+    /**
+     * Convert a trip read by a projection query, with its destination names in itinerary order
+     */
+    public com.tripstory.model.Trip toModel(TripView view, List<String> destinationNames) {
+        if (view == null) {
+            return null;
+        }
+        
+        com.tripstory.model.Trip model = new com.tripstory.model.Trip();
+        model.setId(view.getId());
+        model.setTitle(view.getTitle());
+        model.setStartDate(view.getStartDate());
+        model.setEndDate(view.getEndDate());
+        model.setNotes(view.getNotes());
+        model.setImageUrl(view.getImageUrl());
+        model.setImageAttribution(view.getImageAttribution());
+        model.setImageStatus(toModelImageStatus(view.getImageStatus(), view.getImageUrl()));
+        model.setDestinationSummary(Trip.summarizeDestinations(destinationNames));
+        
+        if (view.getCreatedAt() != null) {
+            model.setCreatedAt(view.getCreatedAt().atOffset(ZoneOffset.UTC));
+        }
+        if (view.getUpdatedAt() != null) {
+            model.setUpdatedAt(view.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        }
+        
+        return model;
+    }
+    
+    public com.tripstory.model.Destination toModel(Destination entity) {
+        if (entity == null) {
+            return null;
+        }
+        
+        com.tripstory.model.Destination model = new com.tripstory.model.Destination();
+        model.setId(entity.getId());
+        model.setName(entity.getName());
+        model.setFullName(entity.getFullName());
+        model.setType(entity.getType());
+        model.setLatitude(entity.getLatitude());
+        model.setLongitude(entity.getLongitude());
+        model.setDescription(entity.getDescription());
+        model.setOrderIndex(entity.getOrderIndex());
+        
+        if (entity.getCreatedAt() != null) {
+            model.setCreatedAt(entity.getCreatedAt().atOffset(ZoneOffset.UTC));
+        }
+        if (entity.getUpdatedAt() != null) {
+            model.setUpdatedAt(entity.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        }
+        
+        return model;
+    }
+    
+    /**
+     * Convert a destination read on the reactive stack
+     */
+    public com.tripstory.model.Destination toModel(DestinationRow row) {
+        if (row == null) {
+            return null;
+        }
+        
+        com.tripstory.model.Destination model = new com.tripstory.model.Destination();
+        model.setId(row.getId());
+        model.setName(row.getName());
+        model.setFullName(row.getFullName());
+        model.setType(row.getType());
+        model.setLatitude(row.getLatitude());
+        model.setLongitude(row.getLongitude());
+        model.setDescription(row.getDescription());
+        model.setOrderIndex(row.getOrderIndex());
+        
+        if (row.getCreatedAt() != null) {
+            model.setCreatedAt(row.getCreatedAt().atOffset(ZoneOffset.UTC));
+        }
+        if (row.getUpdatedAt() != null) {
+            model.setUpdatedAt(row.getUpdatedAt().atOffset(ZoneOffset.UTC));
+        }
+        
+        return model;
+    }
+    
+    private com.tripstory.model.Trip.ImageStatusEnum toModelImageStatus(ImageStatus status, String imageUrl) {
+        if (status == null) {
+            // Trips created before enrichment became asynchronous
+            status = imageUrl != null ? ImageStatus.READY : ImageStatus.UNAVAILABLE;
+        }
+        return com.tripstory.model.Trip.ImageStatusEnum.fromValue(status.name());
+    }
+    
     public Trip fromCreateRequest(CreateTripRequest request) {
         if (request == null) {
             return null;
@@ -59,6 +188,18 @@ public class TripConverter {
         return entity;
     }
     
+    public Destination fromCreateRequest(CreateDestinationRequest request) {
+        if (request == null) {
+            return null;
+        }
+        
+        Destination entity = new Destination(request.getName(), request.getFullName(), request.getType(),
+                request.getLatitude(), request.getLongitude());
+        entity.setDescription(request.getDescription());
+        entity.setOrderIndex(request.getOrderIndex());
+        return entity;
+    }
+    
     private String extractDestinationFromTitle(String title) {
         // Simple extraction logic - look for common patterns
         // "Trip to Paris" -> "Paris"
@@ -92,6 +233,25 @@ public class TripConverter {
         return title;
     }
     
+    public void updateRowFromRequest(TripRow row, UpdateTripRequest request) {
+        if (row == null || request == null) {
+            return;
+        }
+        
+        if (request.getTitle() != null) {
+            row.setTitle(request.getTitle());
+        }
+        if (request.getStartDate() != null) {
+            row.setStartDate(request.getStartDate());
+        }
+        if (request.getEndDate() != null) {
+            row.setEndDate(request.getEndDate());
+        }
+        if (request.getNotes() != null) {
+            row.setNotes(request.getNotes());
+        }
+    }
+    
     public void updateEntityFromRequest(Trip entity, UpdateTripRequest request) {
         if (entity == null || request == null) {
             return;
@@ -110,4 +270,18 @@ public class TripConverter {
             entity.setNotes(request.getNotes());
         }
     }
+    
+    public void updateEntityFromRequest(Destination entity, UpdateDestinationRequest request) {
+        if (entity == null || request == null) {
+            return;
+        }
+        
+        entity.setName(request.getName());
+        entity.setFullName(request.getFullName());
+        entity.setType(request.getType());
+        entity.setLatitude(request.getLatitude());
+        entity.setLongitude(request.getLongitude());
+        entity.setDescription(request.getDescription());
+        entity.setOrderIndex(request.getOrderIndex());
+    }
 }
\ No newline at end of file
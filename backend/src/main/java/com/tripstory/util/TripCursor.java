@@ -0,0 +1,76 @@
+package com.tripstory.util;
+
+import com.tripstory.entity.Trip;
+import com.tripstory.entity.TripRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paginating trips
+ *
+ * Trips are listed by (startDate DESC, id DESC); the cursor remembers the
+ * last row of a page so the next page can resume with an indexed range scan
+ * instead of an OFFSET.
+ */
+public final class TripCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDate startDate;
+    private final Long id;
+
+    public TripCursor(LocalDate startDate, Long id) {
+        this.startDate = startDate;
+        this.id = id;
+    }
+
+    /**
+     * Build the cursor pointing just after the given trip
+     */
+    public static TripCursor after(Trip trip) {
+        return new TripCursor(trip.getStartDate(), trip.getId());
+    }
+
+    /**
+     * Build the cursor pointing just after the given trip row
+     */
+    public static TripCursor after(TripRow trip) {
+        return new TripCursor(trip.getStartDate(), trip.getId());
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TripCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new TripCursor(
+                LocalDate.parse(raw.substring(0, separator)),
+                Long.valueOf(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = startDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
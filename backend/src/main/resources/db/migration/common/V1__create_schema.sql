@@ -0,0 +1,62 @@
+-- Initial schema for trips, destinations and cached destination photos.
+-- Statements are idempotent so databases previously managed by Hibernate's
+-- ddl-auto can be baselined at version 0 and brought up to date by this script.
+
+CREATE TABLE IF NOT EXISTS trips (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(255) NOT NULL,
+    title_key VARCHAR(255),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    notes VARCHAR(1000),
+    image_url VARCHAR(500),
+    image_attribution VARCHAR(255),
+    image_status VARCHAR(20),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_trips PRIMARY KEY (id),
+    CONSTRAINT ck_trips_image_status CHECK (image_status IN ('PENDING', 'READY', 'UNAVAILABLE'))
+);
+
+-- Columns added after the table was first created by ddl-auto
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS title_key VARCHAR(255);
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS image_status VARCHAR(20);
+
+UPDATE trips SET title_key = LOWER(title) WHERE title_key IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_trips_title_key ON trips (title_key);
+
+-- Keyset pagination and upcoming trips (start_date > today)
+CREATE INDEX IF NOT EXISTS idx_trips_start_date_id ON trips (start_date, id);
+
+-- Past trips (end_date < today) and ongoing trips (end_date >= today AND start_date <= today)
+CREATE INDEX IF NOT EXISTS idx_trips_end_date_start_date ON trips (end_date, start_date);
+
+CREATE SEQUENCE IF NOT EXISTS destinations_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS destinations (
+    id BIGINT NOT NULL,
+    trip_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    full_name VARCHAR(500),
+    type VARCHAR(50),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    description VARCHAR(1000),
+    order_index INTEGER,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_destinations PRIMARY KEY (id),
+    CONSTRAINT fk_destinations_trip FOREIGN KEY (trip_id) REFERENCES trips (id)
+);
+
+-- Destinations of a trip in itinerary order
+CREATE INDEX IF NOT EXISTS idx_destinations_trip_order ON destinations (trip_id, order_index);
+
+CREATE TABLE IF NOT EXISTS destination_photos (
+    destination_key VARCHAR(255) NOT NULL,
+    image_url VARCHAR(500),
+    image_attribution VARCHAR(255),
+    fetched_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_destination_photos PRIMARY KEY (destination_key)
+);
@@ -0,0 +1,19 @@
+-- Scope trips to the Firebase user who created them.
+-- Trips created before this migration have no owner and are not returned to anyone.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS owner_uid VARCHAR(128);
+
+-- Every query now filters by owner first, so the unscoped indexes are replaced
+DROP INDEX IF EXISTS idx_trips_start_date_id;
+DROP INDEX IF EXISTS idx_trips_end_date_start_date;
+
+-- Keyset pagination, upcoming trips and the statistics counts
+CREATE INDEX IF NOT EXISTS idx_trips_owner_start_date ON trips (owner_uid, start_date, id);
+
+-- Past and ongoing trips
+CREATE INDEX IF NOT EXISTS idx_trips_owner_end_date ON trips (owner_uid, end_date, start_date);
+
+-- Titles are unique per owner rather than globally
+ALTER TABLE trips DROP CONSTRAINT IF EXISTS uk_trips_title_key;
+DROP INDEX IF EXISTS uk_trips_title_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_trips_owner_title_key ON trips (owner_uid, title_key);
@@ -0,0 +1,6 @@
+-- Version columns for optimistic locking of trips and destinations.
+-- Existing rows start at version 0.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE destinations ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
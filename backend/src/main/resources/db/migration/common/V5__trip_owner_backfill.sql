@@ -0,0 +1,9 @@
+-- Give trips created before V3 an owner, then require one on every trip.
+-- Pre-existing trips are assigned to the Firebase uid in the legacyOwnerUid
+-- placeholder (LEGACY_TRIP_OWNER_UID). When it is not set and such trips exist,
+-- the NOT NULL change fails and the migration stops rather than hiding them.
+-- PostgreSQL rolls the failed migration back; on H2 run flyway repair before retrying.
+
+UPDATE trips SET owner_uid = '${legacyOwnerUid}' WHERE owner_uid IS NULL AND '${legacyOwnerUid}' <> '';
+
+ALTER TABLE trips ALTER COLUMN owner_uid SET NOT NULL;
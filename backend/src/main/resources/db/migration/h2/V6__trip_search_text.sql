@@ -0,0 +1,5 @@
+-- Normal form of the text searched by TripRepository.searchRankedIds and
+-- ReactiveTripRepository.searchRanked: the Java normalization the search term
+-- goes through, so both sides fold case and whitespace the same way.
+
+CREATE ALIAS IF NOT EXISTS trip_search_text DETERMINISTIC FOR 'com.tripstory.util.SearchText.normalize';
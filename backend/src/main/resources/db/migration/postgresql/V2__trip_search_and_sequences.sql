@@ -0,0 +1,12 @@
+-- PostgreSQL-only objects.
+
+-- Trigram index for the ranked title and notes search in TripRepository.searchRanked.
+-- The indexed expression must stay identical to the query's WHERE clause.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_trips_search_trgm
+    ON trips USING gin (lower(title || ' ' || coalesce(notes, '')) gin_trgm_ops);
+
+-- Destinations used an identity column before moving to a pooled sequence;
+-- start the sequence past any existing ids.
+SELECT setval('destinations_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM destinations));
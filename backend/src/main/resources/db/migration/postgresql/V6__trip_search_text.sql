@@ -0,0 +1,13 @@
+-- Normal form of the text searched by TripRepository.searchRankedIds and
+-- ReactiveTripRepository.searchRanked: lowercased and trimmed, with runs of
+-- whitespace folded to one space, as com.tripstory.util.SearchText does for the
+-- search term.
+
+CREATE OR REPLACE FUNCTION trip_search_text(text) RETURNS text
+    LANGUAGE sql IMMUTABLE
+    AS $$ SELECT btrim(regexp_replace(lower($1), '\s+', ' ', 'g')) $$;
+
+-- The trigram index must stay on the expression the search queries filter by
+DROP INDEX IF EXISTS idx_trips_search_trgm;
+CREATE INDEX idx_trips_search_trgm
+    ON trips USING gin (trip_search_text(title || ' ' || coalesce(notes, '')) gin_trgm_ops);
@@ -0,0 +1,253 @@
+package com.tripstory.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Validated-token cache and public key refresh of {@link FirebaseJwtValidator}
+ *
+ * Tokens are signed with a throwaway key whose certificate is served by a local
+ * stub of Google's certs endpoint, which counts its fetches. Whether a validation
+ * was answered from the cache is read from the outcome tag of its timer.
+ */
+class FirebaseJwtValidatorTest {
+
+    private static final String PROJECT_ID = "tripstory-test";
+    private static final String KEY_ID = "test-key";
+    private static final String STORE_PASSWORD = "changeit";
+    private static final int MAX_CACHED_TOKENS = 3;
+    private static final String DEFAULT_CACHE_CONTROL = "public, max-age=3600";
+
+    private static final long HOUR_FROM_NOW = epochSeconds() + 3600;
+
+    private static PrivateKey privateKey;
+    private static HttpServer certsServer;
+    private static final AtomicInteger certsFetches = new AtomicInteger();
+    private static volatile String cacheControl = DEFAULT_CACHE_CONTROL;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FirebaseJwtValidator validator;
+
+    @BeforeAll
+    static void startCertsServer(@TempDir Path directory) throws Exception {
+        Path keyStoreFile = directory.resolve("keys.p12");
+        Process keytool = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", KEY_ID, "-keyalg", "RSA", "-keysize", "2048",
+                "-dname", "CN=" + PROJECT_ID, "-validity", "2",
+                "-storetype", "PKCS12", "-keystore", keyStoreFile.toString(),
+                "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(keytool.waitFor()).as(output).isZero();
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keyStoreFile)) {
+            keyStore.load(in, STORE_PASSWORD.toCharArray());
+        }
+        privateKey = (PrivateKey) keyStore.getKey(KEY_ID, STORE_PASSWORD.toCharArray());
+        String certificate = "-----BEGIN CERTIFICATE-----\\n"
+                + Base64.getEncoder().encodeToString(keyStore.getCertificate(KEY_ID).getEncoded())
+                + "\\n-----END CERTIFICATE-----\\n";
+        byte[] certs = ("{\"" + KEY_ID + "\":\"" + certificate + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        certsServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        certsServer.createContext("/certs", exchange -> {
+            certsFetches.incrementAndGet();
+            if (!cacheControl.isEmpty()) {
+                exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+            }
+            exchange.sendResponseHeaders(200, certs.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(certs);
+            }
+        });
+        certsServer.start();
+    }
+
+    @AfterAll
+    static void stopCertsServer() {
+        certsServer.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        startValidator(DEFAULT_CACHE_CONTROL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void repeatedTokenIsAnsweredFromCache() throws Exception {
+        String token = tokenFor("alice", HOUR_FROM_NOW);
+
+        assertThat(validator.validateToken(token)).containsEntry("sub", "alice");
+        assertThat(validator.validateToken("Bearer " + token)).containsEntry("sub", "alice");
+
+        assertThat(validations("valid")).isEqualTo(1);
+        assertThat(validations("cached")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsNotAnsweredFromCache() throws Exception {
+        long exp = epochSeconds() + 1;
+        String token = tokenFor("alice", exp);
+        assertThat(validator.validateToken(token)).isNotNull();
+
+        awaitPast(exp);
+
+        assertThat(validator.validateToken(token)).isNull();
+        assertThat(validations("cached")).isZero();
+        assertThat(validations("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void tokenWithSameClaimsButDifferentSignatureMisses() throws Exception {
+        String token = tokenFor("alice", HOUR_FROM_NOW);
+        assertThat(validator.validateToken(token)).isNotNull();
+
+        // Same header and payload, so only the digest of the whole token tells them apart
+        String signingInput = token.substring(0, token.lastIndexOf('.') + 1);
+        String forged = signingInput + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(new byte[256]);
+
+        assertThat(validator.validateToken(forged)).isNull();
+        assertThat(validator.validateToken(signingInput)).isNull();
+        assertThat(validations("cached")).isZero();
+        assertThat(validations("bad_signature")).isEqualTo(1);
+    }
+
+    @Test
+    void fullCachePurgesExpiredTokensBeforeDroppingLiveOnes() throws Exception {
+        long exp = epochSeconds() + 1;
+        String shortLived = tokenFor("short-lived", exp);
+        String bob = tokenFor("bob", HOUR_FROM_NOW);
+        String carol = tokenFor("carol", HOUR_FROM_NOW);
+        validator.validateToken(shortLived);
+        validator.validateToken(bob);
+        validator.validateToken(carol);
+        awaitPast(exp);
+
+        // Full: the expired entry makes room and the live ones stay cached
+        validator.validateToken(tokenFor("dave", HOUR_FROM_NOW));
+        validator.validateToken(bob);
+        validator.validateToken(carol);
+        assertThat(validations("cached")).isEqualTo(2);
+
+        // Full of live tokens: the cache is dropped, so they are validated again
+        validator.validateToken(tokenFor("erin", HOUR_FROM_NOW));
+        validator.validateToken(bob);
+        assertThat(validations("cached")).isEqualTo(2);
+        assertThat(validations("valid")).isEqualTo(6);
+    }
+
+    @Test
+    void unknownKeyIdRefreshesKeysAtMostOncePerMinute() throws Exception {
+        assertThat(certsFetches.get()).isEqualTo(1);
+
+        assertThat(validator.validateToken(tokenFor("alice", HOUR_FROM_NOW, "rotated-key"))).isNull();
+        // Runs on the refresher thread after any refresh queued before it
+        validator.secondsUntilKeyRefresh();
+        assertThat(certsFetches.get()).isEqualTo(2);
+
+        assertThat(validator.validateToken(tokenFor("bob", HOUR_FROM_NOW, "rotated-key"))).isNull();
+        validator.secondsUntilKeyRefresh();
+        assertThat(certsFetches.get()).isEqualTo(2);
+        assertThat(validations("unknown_key")).isEqualTo(2);
+
+        // Tokens signed with a known key still validate against the snapshot
+        assertThat(validator.validateToken(tokenFor("carol", HOUR_FROM_NOW))).containsEntry("sub", "carol");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'public, max-age=7200', 7200",
+            "'public, max-age=5', 60",
+            "'', 3600"
+    })
+    void nextKeyRefreshFollowsCacheControlMaxAge(String header, long expectedSeconds) throws Exception {
+        validator.shutdown();
+        startValidator(header);
+
+        assertThat(certsFetches.get()).isEqualTo(1);
+        assertThat(validator.secondsUntilKeyRefresh()).isBetween(expectedSeconds - 10, expectedSeconds);
+    }
+
+    /**
+     * Start a validator against the stub, which answers with the given Cache-Control (none if empty)
+     */
+    private void startValidator(String certsCacheControl) {
+        cacheControl = certsCacheControl;
+        certsFetches.set(0);
+        meterRegistry = new SimpleMeterRegistry();
+        String certsUrl = "http://127.0.0.1:" + certsServer.getAddress().getPort() + "/certs";
+        validator = new FirebaseJwtValidator(PROJECT_ID, certsUrl, meterRegistry, MAX_CACHED_TOKENS);
+        validator.start();
+    }
+
+    private long validations(String outcome) {
+        return meterRegistry.get("tripstory.auth.token.validations").tag("outcome", outcome).timer().count();
+    }
+
+    private static String tokenFor(String uid, long exp) throws Exception {
+        return tokenFor(uid, exp, KEY_ID);
+    }
+
+    private static String tokenFor(String uid, long exp, String keyId) throws Exception {
+        long now = epochSeconds();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"alg\":\"RS256\",\"kid\":\"" + keyId + "\",\"typ\":\"JWT\"}";
+        String payload = "{\"iss\":\"https://securetoken.google.com/" + PROJECT_ID + "\","
+                + "\"aud\":\"" + PROJECT_ID + "\","
+                + "\"sub\":\"" + uid + "\","
+                + "\"iat\":" + now + ","
+                + "\"exp\":" + exp + "}";
+
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(privateKey);
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + encoder.encodeToString(signer.sign());
+    }
+
+    private static long epochSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Token expiry has one-second resolution, so wait until the clock is past it
+     */
+    private static void awaitPast(long epochSecond) throws InterruptedException {
+        while (epochSeconds() <= epochSecond) {
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.tripstory.repository;
+
+import com.tripstory.config.HibernateCacheConfig;
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.ImageStatus;
+import com.tripstory.entity.Trip;
+import com.tripstory.service.DestinationService;
+import com.tripstory.util.TripConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level cache entries after the single-trip bulk updates of {@link TripRepository}
+ *
+ * Every step runs in its own committed transaction, so reads are answered from the
+ * cache whenever Hibernate considers the cached entries current.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({HibernateCacheConfig.class, DestinationService.class, TripConverter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripRepositoryCacheTest {
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private DestinationRepository destinationRepository;
+
+    @Autowired
+    private DestinationService destinationService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Test
+    void destinationWritesEvictTheCachedDestinationList() {
+        Long id = saveTrip("touch-owner");
+        assertThat(destinationNames(id)).containsExactly("Lisbon");
+        assertThat(sessionFactory.getCache().containsCollection(Trip.DESTINATIONS_ROLE, id)).isTrue();
+
+        transaction.executeWithoutResult(status -> {
+            Destination porto = destination("Porto", 1);
+            porto.setTrip(tripRepository.getReferenceById(id));
+            destinationRepository.save(porto);
+            tripRepository.touch(id, LocalDateTime.now());
+        });
+
+        assertThat(destinationNames(id)).containsExactly("Lisbon", "Porto");
+
+        List<Long> ids = transaction.execute(status -> destinationRepository
+                .findByTripIdOrderByOrderIndexAsc(id).stream().map(Destination::getId).toList());
+        destinationService.reorderDestinations(id, List.of(ids.get(1), ids.get(0)));
+
+        assertThat(destinationNames(id)).containsExactly("Porto", "Lisbon");
+    }
+
+    @Test
+    void updateImageRefreshesTheCachedTripAndDateBuckets() {
+        Long id = saveTrip("image-owner");
+        assertThat(upcomingImageStatuses("image-owner")).containsExactly(ImageStatus.PENDING);
+        Statistics statistics = sessionFactory.getStatistics();
+        long queryCacheHits = statistics.getQueryCacheHitCount();
+        assertThat(upcomingImageStatuses("image-owner")).containsExactly(ImageStatus.PENDING);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(queryCacheHits + 1);
+        assertThat(loadTrip(id).getImageStatus()).isEqualTo(ImageStatus.PENDING);
+
+        tripRepository.updateImage(id, "https://images.example/lisbon.jpg", "Photo by Ana",
+                ImageStatus.READY, LocalDateTime.now());
+
+        assertThat(upcomingImageStatuses("image-owner")).containsExactly(ImageStatus.READY);
+        assertThat(loadTrip(id).getImageUrl()).isEqualTo("https://images.example/lisbon.jpg");
+    }
+
+    private Long saveTrip(String ownerUid) {
+        return transaction.execute(status -> {
+            LocalDate start = LocalDate.now().plusDays(10);
+            Trip trip = new Trip("Trip of " + ownerUid, start, start.plusDays(5), null);
+            trip.setOwnerUid(ownerUid);
+            trip.setImageStatus(ImageStatus.PENDING);
+            trip.setCreatedAt(LocalDateTime.now());
+            trip.setUpdatedAt(LocalDateTime.now());
+            trip.addDestination(destination("Lisbon", 0));
+            return tripRepository.save(trip).getId();
+        });
+    }
+
+    private Trip loadTrip(Long tripId) {
+        return transaction.execute(status -> tripRepository.findById(tripId).orElseThrow());
+    }
+
+    private List<String> destinationNames(Long tripId) {
+        return transaction.execute(status -> tripRepository.findById(tripId).orElseThrow()
+                .getDestinations().stream().map(Destination::getName).toList());
+    }
+
+    private List<ImageStatus> upcomingImageStatuses(String ownerUid) {
+        return transaction.execute(status -> tripRepository.findUpcomingTripViews(ownerUid, LocalDate.now())
+                .stream().map(TripView::getImageStatus).toList());
+    }
+
+    /**
+     * Auditing is not part of the JPA test slice, so the timestamps are set here
+     */
+    private static Destination destination(String name, int orderIndex) {
+        Destination destination = new Destination(name, name + ", Portugal", "place", 38.72, -9.14);
+        destination.setOrderIndex(orderIndex);
+        destination.setCreatedAt(LocalDateTime.now());
+        destination.setUpdatedAt(LocalDateTime.now());
+        return destination;
+    }
+}
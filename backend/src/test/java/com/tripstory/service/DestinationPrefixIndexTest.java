@@ -0,0 +1,61 @@
+package com.tripstory.service;
+
+import com.tripstory.service.MapboxService.DestinationSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DestinationPrefixIndexTest {
+
+    @Test
+    void ranksMatchesInMapboxOrderRatherThanAlphabetically() {
+        DestinationPrefixIndex index = new DestinationPrefixIndex(100);
+        index.addAll(List.of(place("Porto"), place("Paris"), place("Prague")));
+
+        assertThat(names(index.search("p", 3))).containsExactly("Porto", "Paris", "Prague");
+    }
+
+    @Test
+    void suggestionsSeenInMoreResultsRankHigher() {
+        DestinationPrefixIndex index = new DestinationPrefixIndex(100);
+        index.addAll(List.of(place("Paris, Texas"), place("Paris")));
+        index.addAll(List.of(place("Paris")));
+
+        assertThat(names(index.search("paris", 2))).containsExactly("Paris", "Paris, Texas");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedSuggestionWhenFull() {
+        DestinationPrefixIndex index = new DestinationPrefixIndex(2);
+        index.addAll(List.of(place("Lisbon")));
+        index.addAll(List.of(place("Lyon")));
+        index.search("lis", 1);
+
+        index.addAll(List.of(place("Leeds")));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(names(index.search("l", 5))).containsExactlyInAnyOrder("Lisbon", "Leeds");
+        assertThat(index.search("lyon", 5)).isEmpty();
+    }
+
+    @Test
+    void doesNotAnswerPrefixesTooBroadToRank() {
+        DestinationPrefixIndex index = new DestinationPrefixIndex(10_000);
+        for (int i = 0; i < 600; i++) {
+            index.addAll(List.of(place("Springfield " + i)));
+        }
+
+        assertThat(index.search("s", 5)).isEmpty();
+        assertThat(names(index.search("springfield 42", 1))).containsExactly("Springfield 42");
+    }
+
+    private static DestinationSuggestion place(String name) {
+        return new DestinationSuggestion(name, name + ", Earth", "place", null, null);
+    }
+
+    private static List<String> names(List<DestinationSuggestion> suggestions) {
+        return suggestions.stream().map(DestinationSuggestion::getName).toList();
+    }
+}
@@ -0,0 +1,140 @@
+package com.tripstory.service;
+
+import com.tripstory.entity.Destination;
+import com.tripstory.entity.Trip;
+import com.tripstory.repository.TripRepository;
+import com.tripstory.util.TripConverter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements issued by the trip list reads, which must not grow with the number of trips
+ *
+ * Counted with Hibernate statistics against the Flyway schema on H2. The second-level
+ * cache is off so every read reaches the database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class TripServiceQueryCountTest {
+
+    private static final String OWNER_UID = "query-count-user";
+    // One for the trips, one for the destination names of all of them
+    private static final long VIEW_READ_STATEMENTS = 2;
+    // Trips whose destination names TripService reads with one statement
+    private static final int DESTINATION_BATCH_SIZE = 500;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TripService tripService;
+    private Statistics statistics;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 200})
+    void listReadsUseAFixedNumberOfStatements(int tripsPerBucket) {
+        List<Long> ids = saveTrips(tripsPerBucket);
+
+        // The views, then the destination names of up to DESTINATION_BATCH_SIZE trips per statement
+        assertThat(countingStatements(() -> tripService.getAllTrips(OWNER_UID)))
+                .hasSize(3 * tripsPerBucket)
+                .allSatisfy(trip -> assertThat(trip.getDestinationSummary()).startsWith("Lisbon"));
+        assertThat(statements())
+                .isEqualTo(1 + (3 * tripsPerBucket + DESTINATION_BATCH_SIZE - 1) / DESTINATION_BATCH_SIZE);
+
+        assertThat(countingStatements(() -> tripService.getTripsPage(OWNER_UID, null, 20)))
+                .hasSize(Math.min(20, 3 * tripsPerBucket));
+        assertThat(statements()).isEqualTo(VIEW_READ_STATEMENTS);
+
+        // Lazily loaded destinations are initialized @BatchSize collections at a time
+        assertThat(countingStatements(() -> tripRepository.findAllById(ids).stream()
+                .map(Trip::getDestinationSummary).toList()))
+                .hasSize(3 * tripsPerBucket);
+        assertThat(statements()).isEqualTo(1 + (3 * tripsPerBucket + 49) / 50);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 120})
+    void dateBucketReadsUseAFixedNumberOfStatements(int tripsPerBucket) {
+        saveTrips(tripsPerBucket);
+
+        assertThat(countingStatements(() -> tripService.getUpcomingTrips(OWNER_UID))).hasSize(tripsPerBucket);
+        assertThat(statements()).isEqualTo(VIEW_READ_STATEMENTS);
+
+        assertThat(countingStatements(() -> tripService.getOngoingTrips(OWNER_UID))).hasSize(tripsPerBucket);
+        assertThat(statements()).isEqualTo(VIEW_READ_STATEMENTS);
+
+        assertThat(countingStatements(() -> tripService.getPastTrips(OWNER_UID))).hasSize(tripsPerBucket);
+        assertThat(statements()).isEqualTo(VIEW_READ_STATEMENTS);
+    }
+
+    /**
+     * Save upcoming, ongoing and past trips with two destinations each, then empty the persistence context
+     */
+    private List<Long> saveTrips(int tripsPerBucket) {
+        tripService = new TripService(tripRepository, null, null, new TripConverter());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < tripsPerBucket; i++) {
+            ids.add(saveTrip("Upcoming " + i, today.plusDays(10 + i), today.plusDays(20 + i), now));
+            ids.add(saveTrip("Ongoing " + i, today.minusDays(1), today.plusDays(1 + i), now));
+            ids.add(saveTrip("Past " + i, today.minusDays(30 + i), today.minusDays(20 + i), now));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private Long saveTrip(String title, LocalDate startDate, LocalDate endDate, LocalDateTime now) {
+        Trip trip = new Trip(title, startDate, endDate, null);
+        trip.setOwnerUid(OWNER_UID);
+        trip.setCreatedAt(now);
+        trip.setUpdatedAt(now);
+        for (String name : List.of("Lisbon", "Sintra")) {
+            Destination destination = new Destination(name, name + ", Portugal", "place", 38.72, -9.14);
+            destination.setOrderIndex(trip.getDestinations().size());
+            destination.setCreatedAt(now);
+            destination.setUpdatedAt(now);
+            trip.addDestination(destination);
+        }
+        return entityManager.persist(trip).getId();
+    }
+
+    /**
+     * Run a read against an empty persistence context, counting its statements from zero
+     */
+    private <T> T countingStatements(Supplier<T> read) {
+        entityManager.clear();
+        statistics.clear();
+        return read.get();
+    }
+
+    private long statements() {
+        return statistics.getPrepareStatementCount();
+    }
+}